@@ -0,0 +1,78 @@
+package chess.benchmark;
+
+import chess.config.Configuration;
+import chess.domain.Coordinates;
+import chess.domain.MoveOutcome;
+import chess.domain.Time;
+import chess.model.gameState.GameState;
+import chess.model.gameState.GameStateFactory;
+import chess.model.history.MoveHistoryFactory;
+import chess.model.history.impl.UndoMoveHistory;
+import chess.model.logic.impl.GameLogicImpl;
+
+/**
+ * Standard positions the benchmarks run on: the initial position, a Ruy Lopez middlegame and a rook endgame.
+ */
+public final class Positions {
+    
+    public static final String OPENING = "opening";
+    public static final String MIDDLEGAME = "middlegame";
+    public static final String ENDGAME = "endgame";
+    
+    private static final String[] ruyLopez = {
+            "e2-e4", "e7-e5", "g1-f3", "b8-c6", "f1-b5", "a7-a6", "b5-a4", "g8-f6", "e1-g1", "f8-e7", "f1-e1",
+            "b7-b5", "a4-b3", "d7-d6", "c2-c3", "e8-g8", "h2-h3", "c6-a5", "b3-c2", "c7-c5", "d2-d4", "d8-c7"
+    };
+    
+    private static final String rookEndgame = "3r4/5pkp/1p4p1/8/P7/6P1/5PKP/3R4 w - - 0 1";
+    
+    private Positions() {
+    }
+    
+    /**
+     * @param implementation game state implementation, as in {@link Configuration#gameStateFactory(String)}
+     */
+    public static GameLogicImpl gameLogic(String position, String implementation) {
+        Time time = Time.fromString("10:00");
+        GameStateFactory factory = new Configuration().gameStateFactory(implementation);
+        MoveHistoryFactory historyFactory = UndoMoveHistory::new;
+        GameLogicImpl gameLogic = new GameLogicImpl(time, Time.fromString("0:00"), factory, historyFactory);
+        switch (position) {
+            case OPENING:
+                break;
+            case MIDDLEGAME:
+                for (String move : ruyLopez) {
+                    if (gameLogic.attemptMove(coordinates(move, 0), coordinates(move, 3)) == MoveOutcome.ILLEGAL) {
+                        throw new AssertionError("Illegal move " + move);
+                    }
+                }
+                break;
+            case ENDGAME:
+                return fromFen(rookEndgame, implementation);
+            default:
+                throw new IllegalArgumentException("Unknown position: " + position);
+        }
+        return gameLogic;
+    }
+    
+    /**
+     * @param implementation game state implementation, as in {@link Configuration#gameStateFactory(String)}
+     */
+    public static GameLogicImpl fromFen(String fen, String implementation) {
+        Time time = Time.fromString("10:00");
+        GameStateFactory factory = new Configuration().gameStateFactory(implementation);
+        GameLogicImpl gameLogic = new GameLogicImpl(time, Time.fromString("0:00"), factory, UndoMoveHistory::new);
+        GameState gameState = factory.newGameState(time);
+        gameState.setFen(fen);
+        gameLogic.loadGame(new UndoMoveHistory(gameState));
+        return gameLogic;
+    }
+    
+    public static GameState gameState(String position, String implementation) {
+        return gameLogic(position, implementation).getMoveHistory().peek();
+    }
+    
+    private static Coordinates coordinates(String s, int index) {
+        return Coordinates.of(s.charAt(index) - 'a' + 1, s.charAt(index + 1) - '0');
+    }
+}
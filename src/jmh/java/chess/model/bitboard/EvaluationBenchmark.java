@@ -0,0 +1,59 @@
+package chess.model.bitboard;
+
+import chess.benchmark.Positions;
+import chess.model.gameState.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static evaluation, as called at every leaf of the search, with and without a pawn hash table (which always hits
+ * here, as the position doesn't change), and the cost of keeping its material and piece-square sums up to date:
+ * making and unmaking every legal move of the position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+    
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME})
+    public String position;
+    
+    @Param({"array", "bitboard"})
+    public String gameState;
+    
+    private final PawnHashTable pawnHash = new PawnHashTable(1 << 14);
+    private final int[] moves = new int[256];
+    private int moveCount;
+    private GameState state;
+    
+    @Setup
+    public void setUp() {
+        state = Positions.gameState(position, gameState);
+        moveCount = state.generateLegalMoves(moves);
+    }
+    
+    @Benchmark
+    public int evaluate() {
+        return state.evaluate();
+    }
+    
+    @Benchmark
+    public int evaluateWithPawnHash() {
+        return state.evaluate(pawnHash);
+    }
+    
+    @Benchmark
+    public int makeEvaluateUnmake() {
+        int sum = 0;
+        for (int i = 0; i < moveCount; ++i) {
+            long undo = state.makeMove(moves[i]);
+            sum += state.evaluate();
+            state.unmakeMove(moves[i], undo);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,53 @@
+package chess.model.bitboard;
+
+import chess.benchmark.Positions;
+import chess.model.gameState.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FEN reading and writing: parsing into one reused board, as bulk tools do, and setting up and writing out a game
+ * state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FenBenchmark {
+    
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME})
+    public String position;
+    
+    @Param({"array", "bitboard"})
+    public String gameState;
+    
+    private final Board board = new Board();
+    private GameState state;
+    private String fen;
+    
+    @Setup
+    public void setUp() {
+        state = Positions.gameState(position, gameState);
+        fen = state.getFen();
+    }
+    
+    @Benchmark
+    public long parse() {
+        Fen.parse(fen, board);
+        return board.getKey();
+    }
+    
+    @Benchmark
+    public long setFen() {
+        state.setFen(fen);
+        return state.getZobristKey();
+    }
+    
+    @Benchmark
+    public String getFen() {
+        return state.getFen();
+    }
+}
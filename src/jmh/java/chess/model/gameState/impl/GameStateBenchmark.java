@@ -0,0 +1,52 @@
+package chess.model.gameState.impl;
+
+import chess.benchmark.Positions;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+    
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME})
+    public String position;
+    
+    @Param({"array", "bitboard"})
+    public String gameState;
+    
+    private GameState state;
+    private int[] moves = new int[Move.MAX_MOVES];
+    private int moveCount;
+    
+    @Setup
+    public void setUp() {
+        state = Positions.gameState(position, gameState);
+        moveCount = state.generateLegalMoves(moves);
+    }
+    
+    @Benchmark
+    public GameState cloneState() {
+        return state.clone();
+    }
+    
+    /**
+     * Plays and takes back every legal move in place, compare with {@link #cloneState()} per move.
+     */
+    @Benchmark
+    public long makeAndUnmakeMoves() {
+        long keys = 0;
+        for (int i = 0; i < moveCount; ++i) {
+            long undo = state.makeMove(moves[i]);
+            keys ^= state.getZobristKey();
+            state.unmakeMove(moves[i], undo);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,72 @@
+package chess.model.history.impl;
+
+import chess.benchmark.Positions;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.history.MoveHistory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveHistoryBenchmark {
+    
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME})
+    public String position;
+    
+    @Param({"array", "bitboard"})
+    public String gameState;
+    
+    private MoveHistory moveHistory;
+    private GameState state;
+    private int move;
+    private byte[] serialized;
+    
+    @Setup
+    public void setUp() throws IOException {
+        moveHistory = Positions.gameLogic(position, gameState).getMoveHistory();
+        state = moveHistory.peek();
+        int[] moves = new int[Move.MAX_MOVES];
+        state.generateLegalMoves(moves);
+        move = moves[0];
+        serialized = serialize();
+    }
+    
+    @Benchmark
+    public GameState pushAndPop() {
+        moveHistory.push(state, move, state.makeMove(move));
+        return moveHistory.pop();
+    }
+    
+    @Benchmark
+    public GameState peek() {
+        return moveHistory.peek();
+    }
+    
+    @Benchmark
+    public GameState peekHalfway() {
+        return moveHistory.peek(moveHistory.size() / 2);
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objOut = new ObjectOutputStream(bytes)) {
+            objOut.writeObject(moveHistory);
+        }
+        return bytes.toByteArray();
+    }
+    
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objIn = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return objIn.readObject();
+        }
+    }
+}
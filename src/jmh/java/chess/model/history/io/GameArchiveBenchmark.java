@@ -0,0 +1,77 @@
+package chess.model.history.io;
+
+import chess.benchmark.Positions;
+import chess.config.Configuration;
+import chess.domain.Time;
+import chess.model.gameState.GameStateFactory;
+import chess.model.history.MoveHistory;
+import chess.model.history.impl.UndoMoveHistory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading single games from archives of different sizes, which should take the same time, and scanning a whole archive
+ * in order, moves and clocks as stored without replaying them, reported per game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameArchiveBenchmark {
+    
+    private static final int ITERATED_GAMES = 10_000;
+    
+    @Param({"1000", "100000"})
+    public int games;
+    
+    private Path file;
+    private GameArchive archive;
+    
+    @Setup
+    public void setUp() throws IOException {
+        MoveHistory middlegame = Positions.gameLogic(Positions.MIDDLEGAME, "bitboard").getMoveHistory();
+        file = Files.createTempFile("games", ".archive");
+        try (GameArchiveWriter writer = GameArchiveWriter.create(file)) {
+            for (int i = 0; i < games; ++i) {
+                writer.append(middlegame, Time.fromString("0:00"));
+            }
+        }
+        GameStateFactory factory = new Configuration().gameStateFactory("bitboard");
+        archive = GameArchive.open(file, factory, UndoMoveHistory::new);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+    
+    @Benchmark
+    public SavedGame loadAny() throws IOException {
+        return archive.load(ThreadLocalRandom.current().nextInt(games));
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ITERATED_GAMES)
+    public long iterate() {
+        long checksum = 0;
+        Iterator<ArchivedGame> iterator = archive.iterator();
+        for (int i = 0; i < ITERATED_GAMES; ++i) {
+            if (!iterator.hasNext()) {
+                iterator = archive.iterator();
+            }
+            ArchivedGame game = iterator.next();
+            for (int ply = 0; ply < game.getMoveCount(); ++ply) {
+                checksum += game.getMoveTo(ply).hashCode() + game.getClockAfter(ply).toNanos();
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,115 @@
+package chess.model.history.io;
+
+import chess.config.Configuration;
+import chess.domain.Time;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.gameState.GameStateFactory;
+import chess.model.history.MoveHistory;
+import chess.model.history.impl.UndoMoveHistory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PGN import and export on one thread, in games per second. The games are random ones of up to 120 moves, played from
+ * a fixed seed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PgnBenchmark {
+    
+    private static final int GAMES = 200;
+    
+    @Param({"array", "bitboard"})
+    public String gameState;
+    
+    private GameStateFactory factory;
+    private final List<MoveHistory> games = new ArrayList<>();
+    private String pgn;
+    
+    @Setup
+    public void setUp() throws IOException {
+        factory = new Configuration().gameStateFactory(gameState);
+        Random random = new Random(42);
+        int[] moves = new int[Move.MAX_MOVES];
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            for (int i = 0; i < GAMES; ++i) {
+                GameState state = factory.newGameState(Time.fromString("0:00"));
+                MoveHistory moveHistory = new UndoMoveHistory(state);
+                for (int ply = 0; ply < 240; ++ply) {
+                    int count = state.generateLegalMoves(moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    int move = moves[random.nextInt(count)];
+                    moveHistory.push(state, move, state.makeMove(move));
+                }
+                games.add(moveHistory);
+                writer.write(moveHistory);
+            }
+        }
+        pgn = out.toString();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public int read() throws IOException {
+        int[] moves = {0};
+        PgnListener listener = (moveFrom, moveTo, promotionChoice) -> ++moves[0];
+        try (PgnReader reader = newReader()) {
+            while (reader.readGame(listener)) {
+            }
+        }
+        return moves[0];
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public int readIntoHistory() throws IOException {
+        int moves = 0;
+        try (PgnReader reader = newReader()) {
+            for (PgnGame game = reader.readGame(); game != null; game = reader.readGame()) {
+                moves += game.getMoveHistory().size();
+            }
+        }
+        return moves;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public void write() throws IOException {
+        PgnWriter writer = new PgnWriter(new Writer() {
+            @Override
+            public void write(char[] chars, int offset, int length) {
+            }
+            
+            @Override
+            public void flush() {
+            }
+            
+            @Override
+            public void close() {
+            }
+        });
+        for (MoveHistory moveHistory : games) {
+            writer.write(moveHistory);
+        }
+    }
+    
+    private PgnReader newReader() {
+        return new PgnReader(new StringReader(pgn), factory, UndoMoveHistory::new, Time.fromString("0:00"));
+    }
+}
@@ -0,0 +1,97 @@
+package chess.model.logic.impl;
+
+import chess.benchmark.Positions;
+import chess.domain.Coordinates;
+import chess.domain.exceptions.SpecialMoveException;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLogicBenchmark {
+    
+    // none of the positions has a move that is illegal only because it leaves the king in check, so the illegal
+    // moves are tried in positions of the same phase: a knight pinned by a bishop, twice, and a king stepping into
+    // the attack of a rook
+    private static final String pinnedKnightOpening =
+            "r1bqk2r/pppp1ppp/2n1pn2/8/1bPP4/2N1PN2/PP3PPP/R1BQKB1R w KQkq - 1 5";
+    private static final String pinnedKnightMiddlegame =
+            "r2q1rk1/pp1n1ppp/2p1pn2/3p4/1bPP4/2NBPN2/PP3PPP/R2QK2R w KQ - 0 9";
+    private static final String attackedSquareEndgame = "8/5pkp/1p4p1/8/P7/3r2P1/5PKP/3R4 w - - 0 1";
+    
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME})
+    public String position;
+    
+    @Param({"array", "bitboard"})
+    public String gameState;
+    
+    private GameLogicImpl gameLogic;
+    private Coordinates legalFrom, legalTo;
+    private GameLogicImpl illegalGameLogic;
+    private Coordinates illegalFrom, illegalTo;
+    private GameState illegalGameState;
+    private int illegalMove;
+    
+    @Setup
+    public void setUp() {
+        gameLogic = Positions.gameLogic(position, gameState);
+        int[] moves = new int[Move.MAX_MOVES];
+        int n = gameLogic.generateLegalMoves(moves);
+        for (int i = 0; i < n; ++i) {
+            if (Move.type(moves[i]) == Move.NORMAL) {
+                legalFrom = Move.getFrom(moves[i]);
+                legalTo = Move.getTo(moves[i]);
+                break;
+            }
+        }
+        
+        // pseudo-legal moves, so they are only rejected by the check test
+        switch (position) {
+            case Positions.OPENING:
+                illegalGameLogic = Positions.fromFen(pinnedKnightOpening, gameState);
+                illegalFrom = Coordinates.of(3, 3);
+                illegalTo = Coordinates.of(4, 5);
+                break;
+            case Positions.MIDDLEGAME:
+                illegalGameLogic = Positions.fromFen(pinnedKnightMiddlegame, gameState);
+                illegalFrom = Coordinates.of(3, 3);
+                illegalTo = Coordinates.of(5, 4);
+                break;
+            default:
+                illegalGameLogic = Positions.fromFen(attackedSquareEndgame, gameState);
+                illegalFrom = Coordinates.of(7, 2);
+                illegalTo = Coordinates.of(6, 3);
+                break;
+        }
+        illegalGameState = illegalGameLogic.getMoveHistory().peek();
+        illegalMove = Move.of(Board.square(illegalFrom), Board.square(illegalTo));
+    }
+    
+    @Benchmark
+    public boolean tryToMoveLegalAndRevert() throws SpecialMoveException {
+        boolean moved = gameLogic.tryToMove(legalFrom, legalTo);
+        gameLogic.revertMove();
+        return moved;
+    }
+    
+    @Benchmark
+    public boolean tryToMoveIllegal() throws SpecialMoveException {
+        return illegalGameLogic.tryToMove(illegalFrom, illegalTo);
+    }
+    
+    /**
+     * The check test of {@link GameLogicImpl#attemptMove}, alone.
+     */
+    @Benchmark
+    public boolean isLegalMoveIllegal() {
+        return illegalGameState.isLegalMove(illegalMove);
+    }
+}
@@ -0,0 +1,55 @@
+package chess.model.search.impl;
+
+import chess.benchmark.Positions;
+import chess.domain.Time;
+import chess.model.gameState.GameState;
+import chess.model.search.SearchResult;
+import chess.model.search.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to depth of the search with 1 to 8 threads, each search starting from an empty transposition table. Gains
+ * from more threads show only on as many cores, and the node counts vary from run to run, as the threads race.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    
+    private static final Time NO_LIMIT = Time.fromString("1:00:00");
+    
+    @Param({Positions.MIDDLEGAME, Positions.ENDGAME})
+    public String position;
+    
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+    
+    @Param({"6"})
+    public int depth;
+    
+    private final TranspositionTable table = new TranspositionTable(64);
+    private AlphaBetaSearchEngine engine;
+    private GameState state;
+    
+    @Setup
+    public void setUp() {
+        engine = new AlphaBetaSearchEngine(table, threads);
+        state = Positions.gameState(position, "bitboard");
+    }
+    
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+    
+    @Benchmark
+    public SearchResult timeToDepth() {
+        return engine.findBestMove(state, NO_LIMIT, depth, result -> {
+        }).getResult().toCompletableFuture().join();
+    }
+}
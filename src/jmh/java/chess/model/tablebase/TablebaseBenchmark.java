@@ -0,0 +1,65 @@
+package chess.model.tablebase;
+
+import chess.domain.Time;
+import chess.model.gameState.GameState;
+import chess.model.gameState.impl.BitboardGameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probing the tables of the three-piece endings, written to a temporary directory before the benchmark: the outcome
+ * of a position, and the best move, which probes the position after every legal move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TablebaseBenchmark {
+    
+    @Param({"8/8/8/3k4/8/8/8/R3K3 w - - 0 1", "4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"})
+    public String fen;
+    
+    private Path directory;
+    private Tablebases tablebases;
+    private GameState state;
+    
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("tablebases");
+        TablebaseGenerator generator = new TablebaseGenerator(directory, Runtime.getRuntime().availableProcessors(),
+                                                              message -> {
+                                                              });
+        generator.generate("KRK");
+        generator.generate("KPK");
+        tablebases = Tablebases.open(directory);
+        state = new BitboardGameState(Time.fromString("0"));
+        state.setFen(fen);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+    
+    @Benchmark
+    public TablebaseResult probe() {
+        return tablebases.probe(state);
+    }
+    
+    @Benchmark
+    public int bestMove() {
+        return tablebases.bestMove(state);
+    }
+}
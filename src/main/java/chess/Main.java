@@ -2,16 +2,21 @@ package chess;
 
 import chess.domain.Colors;
 import chess.domain.Coordinates;
-import chess.domain.PieceKind;
+import chess.domain.MoveOutcome;
 import chess.domain.Time;
-import chess.domain.exceptions.CastlingException;
-import chess.domain.exceptions.EnPassantException;
-import chess.domain.exceptions.PromotionException;
-import chess.domain.exceptions.SpecialMoveException;
-import chess.model.history.MoveHistory;
-import chess.model.history.impl.MoveHistoryImpl;
+import chess.model.bitboard.Board;
+import chess.model.gameState.GameStateFactory;
+import chess.model.history.MoveHistoryFactory;
+import chess.model.history.io.BinaryGameFormat;
+import chess.model.history.io.GameArchive;
+import chess.model.history.io.PgnGame;
+import chess.model.history.io.PgnReader;
+import chess.model.history.io.PgnWriter;
+import chess.model.history.io.SavedGame;
+import chess.model.logic.GameListener;
 import chess.model.logic.GameLogic;
 import chess.model.pieces.Piece;
+import chess.model.session.GameSessions;
 import chess.view.View;
 import lombok.NonNull;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -23,6 +28,8 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyVetoException;
 import java.beans.VetoableChangeListener;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 @ComponentScan
 @SpringBootApplication
@@ -33,44 +40,57 @@ public class Main {
     private final Time defaultGameTime;
     private final Time defaultTimeAddedPerMove;
     private final SettingsHandler settingsHandler;
+    private final GameStateFactory gameStateFactory;
+    private final MoveHistoryFactory moveHistoryFactory;
     
     volatile private boolean gameInProgress;
     // true, if there's something on the board, false otherwise (no game has started yet or a game was ended
     
-    Main(@NonNull GameLogic model, @NonNull View view, @NonNull Time defaultGameTime,
-         @NonNull Time defaultTimeAddedPerMove) {
-        this.model = model;
+    Main(@NonNull GameSessions sessions, @NonNull View view, @NonNull Time defaultGameTime,
+         @NonNull Time defaultTimeAddedPerMove, @NonNull GameStateFactory gameStateFactory,
+         @NonNull MoveHistoryFactory moveHistoryFactory) {
+        // the window plays a single game
+        this.model = sessions.get(sessions.open());
         this.view = view;
         this.defaultGameTime = defaultGameTime;
         this.defaultTimeAddedPerMove = defaultTimeAddedPerMove;
+        this.gameStateFactory = gameStateFactory;
+        this.moveHistoryFactory = moveHistoryFactory;
         settingsHandler = new SettingsHandler();
         
-        Thread timeCounter = new Thread() {
+        // the board stays empty until a game starts
+        model.endGame();
+        model.addListener(new GameListener() {
             @Override
-            @SuppressWarnings("InfiniteLoopStatement")
-            public void run() {
-                synchronized (this) {
-                    while (true) {
-                        if (gameInProgress) {
-                            view.setTime(Colors.WHITE, model.getPlayerTime(Colors.WHITE));
-                            view.setTime(Colors.BLACK, model.getPlayerTime(Colors.BLACK));
-                        }
-                        try {
-                            wait(50);
-                        } catch (InterruptedException ignored) {
-                        }
-                    }
+            public void moveApplied(int move, long changedSquares) {
+                showPieces(changedSquares);
+            }
+            
+            @Override
+            public void positionChanged(long changedSquares) {
+                showPieces(changedSquares);
+            }
+            
+            @Override
+            public void clockChanged(Colors color, Time time) {
+                view.setTime(color, time);
+            }
+            
+            @Override
+            public void gameEnded(Colors lostOnTime) {
+                // a game ended by the players is taken care of by the end game button
+                if (lostOnTime != null) {
+                    gameInProgress = false;
+                    view.showLostOnTime(lostOnTime);
                 }
             }
-        };
-        timeCounter.setDaemon(true);
-        timeCounter.start();
+        });
         
         view.addSettingsListeners(e -> model.setPaused(model.isNotPaused()), settingsHandler, settingsHandler);
         
         view.addNewGameStarter(e -> {
             model.newGame(settingsHandler.gameTime, settingsHandler.timeAddedPerMove);
-            updateChessboard();
+            view.removePromotionChoicePanelIfExists();
             model.startOrResume();
             setGameInProgressToTrueAndUpdateView();
         });
@@ -81,17 +101,23 @@ public class Main {
                 System.err.println("Load cancelled");
                 return;
             }
-            MoveHistory moveHistory;
-            try (FileInputStream fileInput = new FileInputStream(inputFile);
-                 ObjectInputStream objIn = new ObjectInputStream(fileInput)) {
-                moveHistory = (MoveHistoryImpl) objIn.readObject();
-            } catch (IOException | ClassNotFoundException i) {
+            SavedGame savedGame;
+            try {
+                savedGame = readGame(inputFile);
+            } catch (IOException i) {
                 i.printStackTrace();
                 throw new RuntimeException("Error while loading game", i);
             }
-            model.loadGame(moveHistory);
+            if (savedGame == null) {
+                System.err.println("Load cancelled");
+                return;
+            }
+            model.loadGame(savedGame);
             
-            updateChessboard();
+            view.removePromotionChoicePanelIfExists();
+            // only the clocks that differ from the last game's are reported, the view shows the settings meanwhile
+            view.setTime(Colors.WHITE, model.getPlayerTime(Colors.WHITE));
+            view.setTime(Colors.BLACK, model.getPlayerTime(Colors.BLACK));
             model.startOrResume();
             setGameInProgressToTrueAndUpdateView();
         });
@@ -106,9 +132,9 @@ public class Main {
             }
             
             System.err.println("Saving");
-            try (FileOutputStream fileOut = new FileOutputStream(outputFile);
-                 ObjectOutputStream objOut = new ObjectOutputStream(fileOut)) {
-                objOut.writeObject(model.getMoveHistory());
+            try (FileChannel channel = FileChannel.open(outputFile.toPath(), StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                BinaryGameFormat.write(channel, model.getMoveHistory(), model.getTimeAddedPerMove());
             } catch (IOException i) {
                 i.printStackTrace();
             }
@@ -125,8 +151,8 @@ public class Main {
             }
             
             System.err.println("Saving");
-            try (PrintWriter writer = new PrintWriter(outputFile)) {
-                model.getMoveHistory().getMoveLog().forEach(writer::println);
+            try (PgnWriter writer = PgnWriter.create(outputFile.toPath())) {
+                writer.write(model.getMoveHistory());
             } catch (IOException i) {
                 i.printStackTrace();
             }
@@ -153,34 +179,21 @@ public class Main {
             
             System.err.println("revert");
             model.revertMove();
-            updateChessboard();
+            view.removePromotionChoicePanelIfExists();
             model.startOrResume();
         });
         
         view.addMoveHandler((moveFrom, moveTo) -> new Thread(() -> {
             
-            boolean moveSuccessful = true;
-            try {
-                moveSuccessful = model.tryToMove(moveFrom, moveTo);
-                if (moveSuccessful) {
-                    view.move(moveFrom, moveTo);
-                }
-            } catch (PromotionException e) {
-                Colors whoseMove = model.getWhoseMove();
-                PieceKind promotionChoice = view.getPromotionChoice(whoseMove);
-                model.promote(promotionChoice);
-                view.promote(moveFrom, moveTo, promotionChoice, whoseMove);
-            } catch (CastlingException e) {
-                view.castle(moveFrom, moveTo);
-            } catch (EnPassantException e) {
-                view.enPassant(moveFrom, moveTo);
-            } catch (SpecialMoveException e) {
-                throw new AssertionError();
-            } finally {
-                if (moveSuccessful) {
-                    System.err.println(moveFrom + "-" + moveTo);
-                }
+            // the squares the move changes are shown by the listener
+            MoveOutcome outcome = model.attemptMove(moveFrom, moveTo);
+            if (outcome == MoveOutcome.ILLEGAL) {
+                return;
+            }
+            if (outcome == MoveOutcome.PROMOTION_PENDING) {
+                model.promote(view.getPromotionChoice(model.getWhoseMove()));
             }
+            System.err.println(moveFrom + "-" + moveTo);
         }).start());
         
         setGameInProgressToFalseAndUpdateView();
@@ -202,19 +215,49 @@ public class Main {
         new SpringApplicationBuilder(Main.class).headless(false).run(args);
     }
     
-    private void updateChessboard() {
-        for (int i = 1; i < 9; ++i) {
-            for (int j = 1; j < 9; ++j) {
-                Coordinates c = Coordinates.of(i, j);
-                Piece piece = model.getPieceAt(c);
-                if (piece == null) {
-                    view.setIconAt(c, null, null);
-                } else {
-                    view.setIconAt(c, piece.getKind(), piece.getColor());
+    /**
+     * Reads a single saved game, or asks which game to read if the file is an archive. Of a PGN file, the first game
+     * is read, with the clocks set as for a new game.
+     *
+     * @return the game, null if the choice of a game was cancelled
+     */
+    private SavedGame readGame(File inputFile) throws IOException {
+        if (inputFile.getName().toLowerCase().endsWith(".pgn")) {
+            try (PgnReader reader = PgnReader.open(inputFile.toPath(), gameStateFactory, moveHistoryFactory,
+                    settingsHandler.gameTime)) {
+                PgnGame game = reader.readGame();
+                if (game == null) {
+                    throw new IOException("No games in " + inputFile);
                 }
+                return new SavedGame(game.getMoveHistory(), settingsHandler.timeAddedPerMove);
+            }
+        }
+        if (GameArchive.isArchive(inputFile.toPath())) {
+            GameArchive archive = GameArchive.open(inputFile.toPath(), gameStateFactory, moveHistoryFactory);
+            if (archive.size() == 0) {
+                throw new IOException("No games in " + inputFile);
+            }
+            Integer gameNumber = view.getGameNumber(archive.size());
+            return gameNumber == null ? null : archive.load(gameNumber);
+        }
+        try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            return BinaryGameFormat.read(channel, gameStateFactory, moveHistoryFactory);
+        }
+    }
+    
+    /**
+     * @param squares bit {@link Board#square(Coordinates)} set for each square to show
+     */
+    private void showPieces(long squares) {
+        for (; squares != 0; squares &= squares - 1) {
+            Coordinates c = Board.coordinates(Long.numberOfTrailingZeros(squares));
+            Piece piece = model.getPieceAt(c);
+            if (piece == null) {
+                view.setIconAt(c, null, null);
+            } else {
+                view.setIconAt(c, piece.getKind(), piece.getColor());
             }
         }
-        view.removePromotionChoicePanelIfExists();
     }
     
     private void validateThatGameInProgressHasValue(boolean expectedValue) {
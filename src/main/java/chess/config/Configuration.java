@@ -1,8 +1,18 @@
 package chess.config;
 
 import chess.domain.Time;
+import chess.model.gameState.GameStateFactory;
+import chess.model.gameState.impl.BitboardGameState;
+import chess.model.gameState.impl.GameStateImpl;
+import chess.model.history.MoveHistoryFactory;
+import chess.model.history.impl.UndoMoveHistory;
+import chess.model.search.TranspositionTable;
+import chess.model.tablebase.Tablebases;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 
+import java.nio.file.Paths;
+
 @org.springframework.context.annotation.Configuration
 public class Configuration {
     
@@ -16,4 +26,44 @@ public class Configuration {
         return Time.fromString("0:00");
     }
     
+    /**
+     * @param implementation "array" for {@link GameStateImpl}, "bitboard" for {@link BitboardGameState}
+     */
+    @Bean
+    public GameStateFactory gameStateFactory(@Value("${chess.gameState:array}") String implementation) {
+        switch (implementation) {
+            case "array":
+                return GameStateImpl::new;
+            case "bitboard":
+                return BitboardGameState::new;
+            default:
+                throw new IllegalArgumentException("Unknown game state implementation: " + implementation);
+        }
+    }
+    
+    /**
+     * @param checkpointInterval number of moves between two copies of the position kept by the history of a game
+     */
+    @Bean
+    public MoveHistoryFactory moveHistoryFactory(
+            @Value("${chess.history.checkpointInterval:32}") int checkpointInterval) {
+        return gameState -> new UndoMoveHistory(gameState, checkpointInterval);
+    }
+    
+    /**
+     * @param megabytes memory taken by the table shared by the search threads
+     */
+    @Bean
+    public TranspositionTable transpositionTable(@Value("${chess.search.hashMegabytes:16}") int megabytes) {
+        return new TranspositionTable(megabytes);
+    }
+    
+    /**
+     * @param directory where {@link chess.model.tablebase.TablebaseGenerator} wrote the tables, none if empty
+     */
+    @Bean
+    public Tablebases tablebases(@Value("${chess.tablebase.directory:}") String directory) {
+        return directory.isEmpty() ? Tablebases.none() : Tablebases.open(Paths.get(directory));
+    }
+    
 }
@@ -0,0 +1,12 @@
+package chess.domain;
+
+/**
+ * Result of an attempt to make a move, see {@link chess.model.logic.GameLogic#attemptMove(Coordinates, Coordinates)}
+ */
+public enum MoveOutcome {
+    NORMAL,
+    CASTLING,
+    EN_PASSANT,
+    PROMOTION_PENDING,
+    ILLEGAL
+}
@@ -2,16 +2,38 @@ package chess.domain;
 
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Time left on a clock, in nanoseconds. Serialized as a {@link Duration}, as it was kept before, so games saved
+ * by older versions still load.
+ */
 public class Time implements Serializable, Cloneable {
     
-    private Duration timeRemaining;
-    public static final Duration precision = Duration.ofMillis(10);
+    private static final long serialVersionUID = -8738449970530745992L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("timeRemaining", Duration.class)
+    };
+    
+    private long nanos;
     
     public Time(Time other) {
-        this.timeRemaining = other.timeRemaining;
+        this.nanos = other.nanos;
+    }
+    
+    private Time(long nanos) {
+        this.nanos = nanos;
+    }
+    
+    public static Time ofNanos(long nanos) {
+        return new Time(nanos);
     }
     
     public static Time fromString(String s) {
@@ -41,22 +63,34 @@ public class Time implements Serializable, Cloneable {
     }
     
     private Time(int hours, int minutes, int seconds) {
-        timeRemaining = Duration.ofHours(hours).plusMinutes(minutes).plusSeconds(seconds);
+        nanos = TimeUnit.SECONDS.toNanos(hours * 3600L + minutes * 60L + seconds);
     }
     
     public void add(Time timeAdded) {
-        timeRemaining = timeRemaining.plus(timeAdded.timeRemaining);
+        nanos += timeAdded.nanos;
+    }
+    
+    public void subtract(long elapsedNanos) {
+        nanos -= elapsedNanos;
     }
     
-    public void decrement() {
-        timeRemaining = timeRemaining.minus(precision);
+    public long toNanos() {
+        return nanos;
+    }
+    
+    /**
+     * @return whole seconds, counted down like a clock shows them: 0:00:01 until the last nanosecond runs out
+     */
+    public long toSeconds() {
+        return nanos <= 0 ? 0 : (nanos - 1) / 1_000_000_000L + 1;
     }
     
     @Override
     public String toString() {
-        int hours = (int) timeRemaining.toHours();
-        int minutes = (int) timeRemaining.toMinutes() % 60;
-        int seconds = (int) (timeRemaining.getSeconds() % 60);
+        long totalSeconds = toSeconds();
+        int hours = (int) (totalSeconds / 3600);
+        int minutes = (int) (totalSeconds / 60 % 60);
+        int seconds = (int) (totalSeconds % 60);
         StringBuilder sb = new StringBuilder();
         
         sb.append(hours);
@@ -76,6 +110,19 @@ public class Time implements Serializable, Cloneable {
         return sb.toString();
     }
     
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.putFields().put("timeRemaining", Duration.ofNanos(nanos));
+        out.writeFields();
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        Duration timeRemaining = (Duration) in.readFields().get("timeRemaining", null);
+        if (timeRemaining == null) {
+            throw new InvalidObjectException("No time remaining");
+        }
+        nanos = timeRemaining.toNanos();
+    }
+    
     @Override
     public Time clone() {
         try {
@@ -1,5 +0,0 @@
-package chess.domain.exceptions;
-
-public class TwoFieldsPawnAdvanceException extends SpecialMoveException {
-    
-}
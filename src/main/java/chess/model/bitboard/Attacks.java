@@ -0,0 +1,124 @@
+package chess.model.bitboard;
+
+/**
+ * Precomputed attack sets. Sliding pieces use ray tables: the first blocker on a ray is found with a bit scan and
+ * everything behind it is cut off.
+ */
+public final class Attacks {
+    
+    private static final int[] rowStep = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] colStep = {0, 0, 1, -1, 1, -1, 1, -1};
+    // directions whose square indexes grow along the ray, so the nearest blocker is the lowest bit
+    private static final boolean[] increasing = {true, false, true, false, true, true, false, false};
+    private static final int[] rookDirections = {0, 1, 2, 3};
+    private static final int[] bishopDirections = {4, 5, 6, 7};
+    
+    private static final long[][] rays = new long[8][64];
+    private static final long[] knightAttacks = new long[64];
+    private static final long[] kingAttacks = new long[64];
+    private static final long[][] pawnAttacks = new long[2][64];
+    private static final int[] opposite = {1, 0, 3, 2, 7, 6, 5, 4};
+    // squares strictly between two aligned squares, and the whole line through them; 0 if they aren't aligned
+    private static final long[][] between = new long[64][64];
+    private static final long[][] lines = new long[64][64];
+    
+    static {
+        for (int sq = 0; sq < 64; ++sq) {
+            int col = sq & 7, row = sq >>> 3;
+            for (int dir = 0; dir < 8; ++dir) {
+                for (int c = col + colStep[dir], r = row + rowStep[dir]; onBoard(c, r);
+                     c += colStep[dir], r += rowStep[dir]) {
+                    rays[dir][sq] |= 1L << (r * 8 + c);
+                }
+                kingAttacks[sq] |= bit(col + colStep[dir], row + rowStep[dir]);
+            }
+            int[][] knightSteps = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+            for (int[] step : knightSteps) {
+                knightAttacks[sq] |= bit(col + step[0], row + step[1]);
+            }
+            pawnAttacks[Board.WHITE][sq] = bit(col - 1, row + 1) | bit(col + 1, row + 1);
+            pawnAttacks[Board.BLACK][sq] = bit(col - 1, row - 1) | bit(col + 1, row - 1);
+        }
+        for (int sq = 0; sq < 64; ++sq) {
+            for (int dir = 0; dir < 8; ++dir) {
+                long line = rays[dir][sq] | rays[opposite[dir]][sq] | 1L << sq;
+                for (long targets = rays[dir][sq]; targets != 0; targets &= targets - 1) {
+                    int target = Long.numberOfTrailingZeros(targets);
+                    between[sq][target] = rays[dir][sq] & rays[opposite[dir]][target];
+                    lines[sq][target] = line;
+                }
+            }
+        }
+    }
+    
+    private Attacks() {
+    }
+    
+    private static boolean onBoard(int col, int row) {
+        return col >= 0 && col < 8 && row >= 0 && row < 8;
+    }
+    
+    private static long bit(int col, int row) {
+        return onBoard(col, row) ? 1L << (row * 8 + col) : 0;
+    }
+    
+    public static long knight(int square) {
+        return knightAttacks[square];
+    }
+    
+    public static long king(int square) {
+        return kingAttacks[square];
+    }
+    
+    /**
+     * @return squares attacked by a pawn of the given color standing on the square
+     */
+    public static long pawn(int color, int square) {
+        return pawnAttacks[color][square];
+    }
+    
+    public static long rook(int square, long occupied) {
+        long attacks = 0;
+        for (int dir : rookDirections) {
+            attacks |= ray(dir, square, occupied);
+        }
+        return attacks;
+    }
+    
+    public static long bishop(int square, long occupied) {
+        long attacks = 0;
+        for (int dir : bishopDirections) {
+            attacks |= ray(dir, square, occupied);
+        }
+        return attacks;
+    }
+    
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+    
+    /**
+     * @return squares strictly between the two squares if they share a row, column or diagonal, 0 otherwise
+     */
+    public static long between(int from, int to) {
+        return between[from][to];
+    }
+    
+    /**
+     * @return every square of the row, column or diagonal through both squares, 0 if they aren't aligned
+     */
+    public static long line(int from, int to) {
+        return lines[from][to];
+    }
+    
+    private static long ray(int dir, int square, long occupied) {
+        long attacks = rays[dir][square];
+        long blockers = attacks & occupied;
+        if (blockers != 0) {
+            int blocker = increasing[dir] ? Long.numberOfTrailingZeros(blockers)
+                                          : 63 - Long.numberOfLeadingZeros(blockers);
+            attacks ^= rays[dir][blocker];
+        }
+        return attacks;
+    }
+}
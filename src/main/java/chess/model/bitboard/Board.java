@@ -0,0 +1,501 @@
+package chess.model.bitboard;
+
+import chess.domain.Colors;
+import chess.domain.Coordinates;
+import chess.domain.PieceKind;
+
+import java.io.Serializable;
+
+/**
+ * Piece placement stored as one 64-bit bitboard per piece kind and color, together with the rule state needed to
+ * continue the game: side to move, castling rights and the en passant column.
+ * <p>
+ * Squares are indexed as {@code (row - 1) * 8 + (col - 1)}, so a1 is bit 0 and h8 is bit 63. Pieces are encoded as
+ * {@code color * 6 + kind}, where color and kind are ordinals of {@link Colors} and {@link PieceKind}. This class
+ * doesn't validate moves, it only applies them.
+ * <p>
+ * The board also keeps the set of squares attacked by each color. Every change recomputes the attacks of the pieces
+ * on the changed squares and of the sliding pieces whose rays reach them, so asking whether a square is attacked is
+ * a single bit test.
+ * <p>
+ * The {@link Zobrist} key of the position is updated together with every change, so reading it costs nothing. So are
+ * the key of the pawns alone, and the material and piece-square sums and the game phase used by {@link Evaluation}.
+ */
+public final class Board implements Serializable, Cloneable {
+    
+    private static final long serialVersionUID = 3895408354403058351L;
+    
+    public static final int EMPTY = -1;
+    public static final int NO_EN_PASSANT = -1;
+    
+    public static final int WHITE = 0, BLACK = 1;
+    public static final int PAWN = 0, ROOK = 1, KNIGHT = 2, BISHOP = 3, QUEEN = 4, KING = 5;
+    
+    public static final int WHITE_KINGSIDE = 1, WHITE_QUEENSIDE = 2, BLACK_KINGSIDE = 4, BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING_RIGHTS = 15;
+    
+    // bits of undo records above these are left for the caller
+    public static final int UNDO_BITS = 12;
+    private static final int UNDO_CASTLING_SHIFT = 4, UNDO_EN_PASSANT_SHIFT = 8;
+    
+    // castling rights that survive a move from or to the square
+    private static final int[] castlingRightsMask = new int[64];
+    
+    static {
+        for (int sq = 0; sq < 64; ++sq) {
+            castlingRightsMask[sq] = ALL_CASTLING_RIGHTS;
+        }
+        castlingRightsMask[square(1, 1)] &= ~WHITE_QUEENSIDE;
+        castlingRightsMask[square(8, 1)] &= ~WHITE_KINGSIDE;
+        castlingRightsMask[square(5, 1)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        castlingRightsMask[square(1, 8)] &= ~BLACK_QUEENSIDE;
+        castlingRightsMask[square(8, 8)] &= ~BLACK_KINGSIDE;
+        castlingRightsMask[square(5, 8)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+    
+    private long[] pieces = new long[12];
+    private long[] colors = new long[2];
+    private byte[] squares = new byte[64];
+    // attacks of the piece standing on each square, and their union for each color
+    private long[] squareAttacks = new long[64];
+    private long[] attacked = new long[2];
+    
+    private int sideToMove = WHITE;
+    private int castlingRights;
+    private int enPassantColumn = NO_EN_PASSANT;
+    private long key;
+    // XOR of the Zobrist keys of the pawns only
+    private long pawnKey;
+    // sums of Evaluation.middlegame, Evaluation.endgame and Evaluation.phase over the pieces
+    private int middlegameScore, endgameScore, phase;
+    
+    public Board() {
+        clear();
+    }
+    
+    public static Board initial() {
+        Board board = new Board();
+        int[] backRank = {ROOK, KNIGHT, BISHOP, QUEEN, KING, BISHOP, KNIGHT, ROOK};
+        for (int col = 1; col <= 8; ++col) {
+            board.put(square(col, 1), piece(WHITE, backRank[col - 1]));
+            board.put(square(col, 2), piece(WHITE, PAWN));
+            board.put(square(col, 7), piece(BLACK, PAWN));
+            board.put(square(col, 8), piece(BLACK, backRank[col - 1]));
+        }
+        board.setCastlingRights(ALL_CASTLING_RIGHTS);
+        return board;
+    }
+    
+    public static int square(int col, int row) {
+        return (row - 1) * 8 + (col - 1);
+    }
+    
+    public static int square(Coordinates coordinates) {
+        return square(coordinates.getCol(), coordinates.getRow());
+    }
+    
+    public static Coordinates coordinates(int square) {
+        return Coordinates.of((square & 7) + 1, (square >>> 3) + 1);
+    }
+    
+    public static int piece(int color, int kind) {
+        return color * 6 + kind;
+    }
+    
+    public static int piece(Colors color, PieceKind kind) {
+        return piece(color.ordinal(), kind.ordinal());
+    }
+    
+    public static int colorOf(int piece) {
+        return piece / 6;
+    }
+    
+    public static int kindOf(int piece) {
+        return piece % 6;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < pieces.length; ++i) {
+            pieces[i] = 0;
+        }
+        colors[WHITE] = colors[BLACK] = 0;
+        for (int sq = 0; sq < 64; ++sq) {
+            squares[sq] = EMPTY;
+            squareAttacks[sq] = 0;
+        }
+        attacked[WHITE] = attacked[BLACK] = 0;
+        sideToMove = WHITE;
+        castlingRights = 0;
+        enPassantColumn = NO_EN_PASSANT;
+        key = Zobrist.castling(castlingRights);
+        pawnKey = 0;
+        middlegameScore = endgameScore = phase = 0;
+    }
+    
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+    
+    public void put(int square, int piece) {
+        removePiece(square);
+        addPiece(square, piece);
+        updateAttacks(1L << square);
+    }
+    
+    public void remove(int square) {
+        removePiece(square);
+        updateAttacks(1L << square);
+    }
+    
+    /**
+     * Moves the piece standing on {@code from} to {@code to}, capturing whatever stands there. Double pawn advances
+     * set the en passant column, castling rights are updated and the side to move is toggled.
+     */
+    public void move(int from, int to) {
+        int piece = squares[from];
+        removePiece(from);
+        removePiece(to);
+        addPiece(to, piece);
+        updateAttacks(1L << from | 1L << to);
+        setEnPassantColumn(kindOf(piece) == PAWN && Math.abs(to - from) == 16 ? from & 7 : NO_EN_PASSANT);
+        setCastlingRights(castlingRights & castlingRightsMask[from] & castlingRightsMask[to]);
+        toggleSideToMove();
+    }
+    
+    public void castle(int kingFrom, int kingTo) {
+        int rookFrom = kingTo > kingFrom ? kingFrom + 3 : kingFrom - 4;
+        int rookTo = (kingFrom + kingTo) / 2;
+        int king = squares[kingFrom], rook = squares[rookFrom];
+        removePiece(kingFrom);
+        removePiece(rookFrom);
+        addPiece(kingTo, king);
+        addPiece(rookTo, rook);
+        updateAttacks(1L << kingFrom | 1L << kingTo | 1L << rookFrom | 1L << rookTo);
+        setEnPassantColumn(NO_EN_PASSANT);
+        setCastlingRights(castlingRights & castlingRightsMask[kingFrom]);
+        toggleSideToMove();
+    }
+    
+    public void enPassant(int from, int to) {
+        int captured = (from & ~7) | (to & 7);
+        int pawn = squares[from];
+        removePiece(from);
+        removePiece(captured);
+        addPiece(to, pawn);
+        updateAttacks(1L << from | 1L << to | 1L << captured);
+        setEnPassantColumn(NO_EN_PASSANT);
+        toggleSideToMove();
+    }
+    
+    public void promote(int from, int to, int kind) {
+        int color = colorOf(squares[from]);
+        removePiece(from);
+        removePiece(to);
+        addPiece(to, piece(color, kind));
+        updateAttacks(1L << from | 1L << to);
+        setEnPassantColumn(NO_EN_PASSANT);
+        setCastlingRights(castlingRights & castlingRightsMask[to]);
+        toggleSideToMove();
+    }
+    
+    /**
+     * Applies a packed {@link Move} generated for this board.
+     *
+     * @return undo record for {@link #unmakeMove(int, long)}: the captured piece, castling rights and en passant
+     * column before the move, packed into the lowest {@link #UNDO_BITS} bits
+     */
+    public long makeMove(int move) {
+        final int from = Move.from(move), to = Move.to(move);
+        long undo = (squares[to] + 1)
+                    | castlingRights << UNDO_CASTLING_SHIFT
+                    | (enPassantColumn + 1) << UNDO_EN_PASSANT_SHIFT;
+        switch (Move.type(move)) {
+            case Move.NORMAL:
+                move(from, to);
+                break;
+            case Move.CASTLING:
+                castle(from, to);
+                break;
+            case Move.EN_PASSANT:
+                enPassant(from, to);
+                break;
+            case Move.PROMOTION:
+                promote(from, to, Move.promotionKind(move));
+                break;
+            default:
+                throw new AssertionError();
+        }
+        return undo;
+    }
+    
+    /**
+     * Takes back the move, which has to be the last one applied.
+     *
+     * @param undo record returned by {@link #makeMove(int)}
+     */
+    public void unmakeMove(int move, long undo) {
+        final int from = Move.from(move), to = Move.to(move);
+        final int captured = capturedPiece(undo);
+        toggleSideToMove();
+        switch (Move.type(move)) {
+            case Move.NORMAL:
+            case Move.PROMOTION: {
+                int piece = Move.type(move) == Move.PROMOTION ? piece(sideToMove, PAWN) : squares[to];
+                removePiece(to);
+                addPiece(from, piece);
+                if (captured != EMPTY) {
+                    addPiece(to, captured);
+                }
+                updateAttacks(1L << from | 1L << to);
+                break;
+            }
+            case Move.CASTLING: {
+                int rookFrom = to > from ? from + 3 : from - 4;
+                int rookTo = (from + to) / 2;
+                int king = squares[to], rook = squares[rookTo];
+                removePiece(to);
+                removePiece(rookTo);
+                addPiece(from, king);
+                addPiece(rookFrom, rook);
+                updateAttacks(1L << from | 1L << to | 1L << rookFrom | 1L << rookTo);
+                break;
+            }
+            case Move.EN_PASSANT: {
+                int capturedSquare = (from & ~7) | (to & 7);
+                int pawn = squares[to];
+                removePiece(to);
+                addPiece(from, pawn);
+                addPiece(capturedSquare, piece(sideToMove ^ 1, PAWN));
+                updateAttacks(1L << from | 1L << to | 1L << capturedSquare);
+                break;
+            }
+            default:
+                throw new AssertionError();
+        }
+        setCastlingRights((int) (undo >>> UNDO_CASTLING_SHIFT) & 15);
+        setEnPassantColumn(((int) (undo >>> UNDO_EN_PASSANT_SHIFT) & 15) - 1);
+    }
+    
+    /**
+     * @return piece captured by the move the undo record belongs to, {@link #EMPTY} if none or the move was en passant
+     */
+    public static int capturedPiece(long undo) {
+        return ((int) undo & 15) - 1;
+    }
+    
+    private void addPiece(int square, int piece) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        colors[colorOf(piece)] |= bit;
+        squares[square] = (byte) piece;
+        key ^= Zobrist.piece(piece, square);
+        if (kindOf(piece) == PAWN) {
+            pawnKey ^= Zobrist.piece(piece, square);
+        }
+        middlegameScore += Evaluation.middlegame(piece, square);
+        endgameScore += Evaluation.endgame(piece, square);
+        phase += Evaluation.phase(piece);
+    }
+    
+    private void removePiece(int square) {
+        int piece = squares[square];
+        if (piece == EMPTY) {
+            return;
+        }
+        long bit = 1L << square;
+        pieces[piece] &= ~bit;
+        colors[colorOf(piece)] &= ~bit;
+        squares[square] = EMPTY;
+        squareAttacks[square] = 0;
+        key ^= Zobrist.piece(piece, square);
+        if (kindOf(piece) == PAWN) {
+            pawnKey ^= Zobrist.piece(piece, square);
+        }
+        middlegameScore -= Evaluation.middlegame(piece, square);
+        endgameScore -= Evaluation.endgame(piece, square);
+        phase -= Evaluation.phase(piece);
+    }
+    
+    /**
+     * Recomputes attacks after the pieces on the changed squares were added or removed. Only those pieces and the
+     * sliding pieces whose attacks reach a changed square (and so were blocked or unblocked) can attack differently.
+     */
+    private void updateAttacks(long changed) {
+        final long occupied = getOccupied();
+        long sliders = 0;
+        for (int color = WHITE; color <= BLACK; ++color) {
+            sliders |= getPieces(color, BISHOP) | getPieces(color, ROOK) | getPieces(color, QUEEN);
+        }
+        for (long s = sliders & ~changed; s != 0; s &= s - 1) {
+            int sq = Long.numberOfTrailingZeros(s);
+            if ((squareAttacks[sq] & changed) != 0) {
+                squareAttacks[sq] = attacksFrom(sq, occupied);
+            }
+        }
+        for (long s = changed & occupied; s != 0; s &= s - 1) {
+            int sq = Long.numberOfTrailingZeros(s);
+            squareAttacks[sq] = attacksFrom(sq, occupied);
+        }
+        for (int color = WHITE; color <= BLACK; ++color) {
+            long attacks = 0;
+            for (long s = colors[color]; s != 0; s &= s - 1) {
+                attacks |= squareAttacks[Long.numberOfTrailingZeros(s)];
+            }
+            attacked[color] = attacks;
+        }
+    }
+    
+    private long attacksFrom(int square, long occupied) {
+        int piece = squares[square];
+        switch (kindOf(piece)) {
+            case PAWN:
+                return Attacks.pawn(colorOf(piece), square);
+            case ROOK:
+                return Attacks.rook(square, occupied);
+            case KNIGHT:
+                return Attacks.knight(square);
+            case BISHOP:
+                return Attacks.bishop(square, occupied);
+            case QUEEN:
+                return Attacks.queen(square, occupied);
+            case KING:
+                return Attacks.king(square);
+            default:
+                throw new AssertionError();
+        }
+    }
+    
+    public int kingSquare(int color) {
+        long king = pieces[piece(color, KING)];
+        if (king == 0) {
+            throw new AssertionError("Could not find the king");
+        }
+        return Long.numberOfTrailingZeros(king);
+    }
+    
+    /**
+     * @return pieces of the given color that attack the square, assuming the given occupancy
+     */
+    public long attackersTo(int square, long occupied, int byColor) {
+        long queens = getPieces(byColor, QUEEN);
+        return Attacks.pawn(byColor ^ 1, square) & getPieces(byColor, PAWN)
+               | Attacks.knight(square) & getPieces(byColor, KNIGHT)
+               | Attacks.king(square) & getPieces(byColor, KING)
+               | Attacks.rook(square, occupied) & (getPieces(byColor, ROOK) | queens)
+               | Attacks.bishop(square, occupied) & (getPieces(byColor, BISHOP) | queens);
+    }
+    
+    public boolean isAttacked(int square, int byColor) {
+        return (attacked[byColor] & 1L << square) != 0;
+    }
+    
+    /**
+     * @return squares attacked by the piece on the square, 0 if it's empty
+     */
+    public long getAttacks(int square) {
+        return squareAttacks[square];
+    }
+    
+    /**
+     * @return squares attacked by pieces of the given color
+     */
+    public long getAttacked(int color) {
+        return attacked[color];
+    }
+    
+    public boolean isInCheck(int color) {
+        return isAttacked(kingSquare(color), color ^ 1);
+    }
+    
+    public long getPieces(int color, int kind) {
+        return pieces[piece(color, kind)];
+    }
+    
+    public long getPieces(int color) {
+        return colors[color];
+    }
+    
+    public long getOccupied() {
+        return colors[WHITE] | colors[BLACK];
+    }
+    
+    public int getSideToMove() {
+        return sideToMove;
+    }
+    
+    public void setSideToMove(int sideToMove) {
+        if (this.sideToMove != sideToMove) {
+            toggleSideToMove();
+        }
+    }
+    
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+    
+    public void setCastlingRights(int castlingRights) {
+        key ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(castlingRights);
+        this.castlingRights = castlingRights;
+    }
+    
+    public int getEnPassantColumn() {
+        return enPassantColumn;
+    }
+    
+    public void setEnPassantColumn(int enPassantColumn) {
+        key ^= Zobrist.enPassant(this.enPassantColumn) ^ Zobrist.enPassant(enPassantColumn);
+        this.enPassantColumn = enPassantColumn;
+    }
+    
+    /**
+     * @return Zobrist key of the position, see {@link Zobrist}
+     */
+    public long getKey() {
+        return key;
+    }
+    
+    /**
+     * @return Zobrist key of the pawns alone, for caching pawn structure scores, see {@link PawnHashTable}
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+    
+    /**
+     * @return material and piece-square score for the middlegame, from white's point of view, see {@link Evaluation}
+     */
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+    
+    /**
+     * @return material and piece-square score for the endgame, from white's point of view, see {@link Evaluation}
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+    
+    public int getPhase() {
+        return phase;
+    }
+    
+    private void toggleSideToMove() {
+        sideToMove ^= 1;
+        key ^= Zobrist.blackToMove();
+    }
+    
+    @Override
+    public Board clone() {
+        try {
+            Board copy = (Board) super.clone();
+            copy.pieces = pieces.clone();
+            copy.colors = colors.clone();
+            copy.squares = squares.clone();
+            copy.squareAttacks = squareAttacks.clone();
+            copy.attacked = attacked.clone();
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package chess.model.bitboard;
+
+import static chess.model.bitboard.Board.*;
+
+/**
+ * Static evaluation: material and piece-square tables, plus mobility and king safety. Every term has a middlegame and
+ * an endgame value, blended by the game phase, which goes from {@link #MAX_PHASE} with all pieces on the board down
+ * to 0 with only kings and pawns left.
+ * <p>
+ * Material and piece-square values only depend on which piece stands where, so {@link Board} sums them up as pieces
+ * are added and removed, and evaluating costs no scan of the board. Mobility and king safety are read off the attack
+ * sets the board keeps anyway. Pawn structure (doubled, isolated and passed pawns) only depends on the pawns, so it
+ * can be cached in a {@link PawnHashTable}.
+ */
+public final class Evaluation {
+    
+    public static final int MAX_PHASE = 24;
+    
+    // indexed by piece kind: pawn, rook, knight, bishop, queen, king
+    private static final int[] middlegameValues = {82, 477, 337, 365, 1025, 0};
+    private static final int[] endgameValues = {94, 512, 281, 297, 936, 0};
+    private static final int[] phaseWeights = {0, 2, 1, 1, 4, 0};
+    private static final int[] middlegameMobility = {0, 2, 4, 5, 1, 0};
+    private static final int[] endgameMobility = {0, 4, 4, 5, 2, 0};
+    
+    private static final int SHIELD_PAWN = 12, KING_ZONE_ATTACK = 8;
+    private static final int DOUBLED_MIDDLEGAME = 10, DOUBLED_ENDGAME = 20;
+    private static final int ISOLATED_MIDDLEGAME = 10, ISOLATED_ENDGAME = 15;
+    // indexed by the pawn's row counted from its own side, 1 for a pawn that hasn't moved
+    private static final int[] passedMiddlegame = {0, 0, 5, 10, 20, 35, 55, 0};
+    private static final int[] passedEndgame = {0, 10, 15, 25, 40, 65, 100, 0};
+    
+    // piece-square tables from white's side, a8 first, so a white piece on square sq reads index sq ^ 56
+    private static final int[] pawnTable = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0};
+    private static final int[] pawnEndgameTable = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             80,  80,  80,  80,  80,  80,  80,  80,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             30,  30,  30,  30,  30,  30,  30,  30,
+             15,  15,  15,  15,  15,  15,  15,  15,
+              5,   5,   5,   5,   5,   5,   5,   5,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0};
+    private static final int[] rookTable = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0};
+    private static final int[] knightTable = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50};
+    private static final int[] bishopTable = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20};
+    private static final int[] queenTable = {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20};
+    private static final int[] kingTable = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20};
+    private static final int[] kingEndgameTable = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+    
+    // material plus position of each piece on each square, from white's point of view
+    private static final int[][] middlegame = new int[12][64];
+    private static final int[][] endgame = new int[12][64];
+    
+    private static final long[] columns = new long[8];
+    private static final long[] adjacentColumns = new long[8];
+    // squares in front of a pawn, on its column and the adjacent ones, that no enemy pawn may stand on if it's passed
+    private static final long[][] passedSpans = new long[2][64];
+    
+    static {
+        int[][] middlegameTables = {pawnTable, rookTable, knightTable, bishopTable, queenTable, kingTable};
+        int[][] endgameTables = {pawnEndgameTable, rookTable, knightTable, bishopTable, queenTable, kingEndgameTable};
+        for (int kind = PAWN; kind <= KING; ++kind) {
+            for (int sq = 0; sq < 64; ++sq) {
+                middlegame[piece(WHITE, kind)][sq] = middlegameValues[kind] + middlegameTables[kind][sq ^ 56];
+                endgame[piece(WHITE, kind)][sq] = endgameValues[kind] + endgameTables[kind][sq ^ 56];
+                middlegame[piece(BLACK, kind)][sq] = -middlegameValues[kind] - middlegameTables[kind][sq];
+                endgame[piece(BLACK, kind)][sq] = -endgameValues[kind] - endgameTables[kind][sq];
+            }
+        }
+        for (int col = 0; col < 8; ++col) {
+            columns[col] = 0x0101_0101_0101_0101L << col;
+        }
+        for (int col = 0; col < 8; ++col) {
+            adjacentColumns[col] = (col > 0 ? columns[col - 1] : 0) | (col < 7 ? columns[col + 1] : 0);
+        }
+        for (int sq = 0; sq < 64; ++sq) {
+            long span = columns[sq & 7] | adjacentColumns[sq & 7];
+            int row = sq >>> 3;
+            passedSpans[WHITE][sq] = row == 7 ? 0 : span & -1L << (row + 1) * 8;
+            passedSpans[BLACK][sq] = span & (1L << row * 8) - 1;
+        }
+    }
+    
+    private Evaluation() {
+    }
+    
+    /**
+     * @return middlegame value of the piece on the square, positive for white
+     */
+    public static int middlegame(int piece, int square) {
+        return middlegame[piece][square];
+    }
+    
+    /**
+     * @return endgame value of the piece on the square, positive for white
+     */
+    public static int endgame(int piece, int square) {
+        return endgame[piece][square];
+    }
+    
+    public static int phase(int piece) {
+        return phaseWeights[kindOf(piece)];
+    }
+    
+    /**
+     * @return score in centipawns, from the side to move's point of view
+     */
+    public static int evaluate(Board board) {
+        return evaluate(board, null);
+    }
+    
+    /**
+     * @param pawnHash cache of pawn structure scores, or null to compute them every time
+     * @return score in centipawns, from the side to move's point of view
+     */
+    public static int evaluate(Board board, PawnHashTable pawnHash) {
+        int pawns = pawnHash == null ? pawnStructure(board) : pawnHash.pawnStructure(board);
+        int middlegameScore = board.getMiddlegameScore() + middlegameOf(pawns);
+        int endgameScore = board.getEndgameScore() + endgameOf(pawns);
+        for (int color = WHITE; color <= BLACK; ++color) {
+            int sign = color == WHITE ? 1 : -1;
+            long own = board.getPieces(color);
+            for (int kind = ROOK; kind <= QUEEN; ++kind) {
+                for (long s = board.getPieces(color, kind); s != 0; s &= s - 1) {
+                    int moves = Long.bitCount(board.getAttacks(Long.numberOfTrailingZeros(s)) & ~own);
+                    middlegameScore += sign * middlegameMobility[kind] * moves;
+                    endgameScore += sign * endgameMobility[kind] * moves;
+                }
+            }
+            middlegameScore += sign * kingSafety(board, color);
+        }
+        int phase = Math.min(board.getPhase(), MAX_PHASE);
+        int score = (middlegameScore * phase + endgameScore * (MAX_PHASE - phase)) / MAX_PHASE;
+        return board.getSideToMove() == WHITE ? score : -score;
+    }
+    
+    /**
+     * @return doubled, isolated and passed pawn terms from white's point of view, packed as by {@link #pack(int, int)}
+     */
+    static int pawnStructure(Board board) {
+        int middlegameScore = 0, endgameScore = 0;
+        for (int color = WHITE; color <= BLACK; ++color) {
+            int sign = color == WHITE ? 1 : -1;
+            long own = board.getPieces(color, PAWN), enemy = board.getPieces(color ^ 1, PAWN);
+            for (int col = 0; col < 8; ++col) {
+                int count = Long.bitCount(own & columns[col]);
+                if (count > 1) {
+                    middlegameScore -= sign * DOUBLED_MIDDLEGAME * (count - 1);
+                    endgameScore -= sign * DOUBLED_ENDGAME * (count - 1);
+                }
+                if (count > 0 && (own & adjacentColumns[col]) == 0) {
+                    middlegameScore -= sign * ISOLATED_MIDDLEGAME * count;
+                    endgameScore -= sign * ISOLATED_ENDGAME * count;
+                }
+            }
+            for (long s = own; s != 0; s &= s - 1) {
+                int sq = Long.numberOfTrailingZeros(s);
+                if ((passedSpans[color][sq] & enemy) == 0) {
+                    int row = color == WHITE ? sq >>> 3 : 7 - (sq >>> 3);
+                    middlegameScore += sign * passedMiddlegame[row];
+                    endgameScore += sign * passedEndgame[row];
+                }
+            }
+        }
+        return pack(middlegameScore, endgameScore);
+    }
+    
+    /**
+     * @return middlegame and endgame scores in one int, each must fit in 16 bits
+     */
+    static int pack(int middlegameScore, int endgameScore) {
+        return (middlegameScore << 16) + endgameScore;
+    }
+    
+    static int middlegameOf(int packed) {
+        return (packed + 0x8000) >> 16;
+    }
+    
+    static int endgameOf(int packed) {
+        return (short) packed;
+    }
+    
+    /**
+     * Pawns sheltering a king on its back ranks, less the squares around the king the opponent attacks. Only matters
+     * in the middlegame, in the endgame the king should come out.
+     */
+    private static int kingSafety(Board board, int color) {
+        int king = board.kingSquare(color);
+        int row = king >>> 3;
+        int safety = 0;
+        if (color == WHITE ? row <= 1 : row >= 6) {
+            long shield = Attacks.pawn(color, king) | (color == WHITE ? 1L << (king + 8) : 1L << (king - 8));
+            safety += SHIELD_PAWN * Long.bitCount(shield & board.getPieces(color, PAWN));
+        }
+        safety -= KING_ZONE_ATTACK * Long.bitCount(Attacks.king(king) & board.getAttacked(color ^ 1));
+        return safety;
+    }
+}
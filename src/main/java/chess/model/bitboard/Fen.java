@@ -0,0 +1,279 @@
+package chess.model.bitboard;
+
+import static chess.model.bitboard.Board.*;
+
+/**
+ * Forsyth-Edwards Notation of positions: the pieces rank by rank from the eighth down, the side to move, castling
+ * rights, the en passant square, the halfmove clock and the fullmove number, see {@link #INITIAL}.
+ * <p>
+ * Positions are parsed straight into a {@link Board}, without splitting the text or building objects on the way, so
+ * reading many positions costs little more than setting up their boards.
+ */
+public final class Fen {
+    
+    public static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    
+    // indexed by piece code
+    private static final String LETTERS = "PRNBQKprnbqk";
+    // indexed by the bit of the castling right
+    private static final String CASTLING_LETTERS = "KQkq";
+    
+    private static final long[] initialSquares = new long[12];
+    
+    static {
+        Board initial = Board.initial();
+        for (int sq = 0; sq < 64; ++sq) {
+            if (initial.pieceAt(sq) != EMPTY) {
+                initialSquares[initial.pieceAt(sq)] |= 1L << sq;
+            }
+        }
+    }
+    
+    private Fen() {
+    }
+    
+    /**
+     * Sets up the board from the FEN. The move counters are checked but not kept, as the board doesn't count moves;
+     * they may also be left out, as EPD does. Castling rights of a king or rook that isn't on its initial square are
+     * dropped, and so is an en passant square no pawn can have just passed.
+     *
+     * @throws IllegalArgumentException if the FEN is malformed, or if the position is impossible: a side without
+     *                                  exactly one king, a pawn on the first or last rank, or the side that just moved
+     *                                  in check. The board is then left cleared
+     */
+    public static void parse(CharSequence fen, Board board) {
+        board.clear();
+        try {
+            parseFields(fen, board);
+        } catch (IllegalArgumentException e) {
+            board.clear();
+            throw e;
+        }
+    }
+    
+    /**
+     * @return the position with the halfmove clock 0 and the fullmove number 1
+     */
+    public static String format(Board board) {
+        StringBuilder sb = new StringBuilder(90);
+        append(sb, board, 0, 1);
+        return sb.toString();
+    }
+    
+    public static void append(StringBuilder sb, Board board, int halfmoveClock, int fullmoveNumber) {
+        for (int row = 8; row >= 1; --row) {
+            int empty = 0;
+            for (int col = 1; col <= 8; ++col) {
+                int piece = board.pieceAt(square(col, row));
+                if (piece == EMPTY) {
+                    ++empty;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                sb.append(LETTERS.charAt(piece));
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (row > 1) {
+                sb.append('/');
+            }
+        }
+        sb.append(board.getSideToMove() == WHITE ? " w " : " b ");
+        int castlingRights = board.getCastlingRights();
+        if (castlingRights == 0) {
+            sb.append('-');
+        }
+        for (int right = 0; right < CASTLING_LETTERS.length(); ++right) {
+            if ((castlingRights & 1 << right) != 0) {
+                sb.append(CASTLING_LETTERS.charAt(right));
+            }
+        }
+        sb.append(' ');
+        if (board.getEnPassantColumn() == NO_EN_PASSANT) {
+            sb.append('-');
+        } else {
+            sb.append((char) ('a' + board.getEnPassantColumn())).append(board.getSideToMove() == WHITE ? '6' : '3');
+        }
+        sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+    }
+    
+    /**
+     * @return squares of the pieces a position set up from FEN treats as never moved: those standing on their initial
+     * squares, except for kings and rooks without a castling right
+     */
+    public static long unmoved(Board board) {
+        long unmoved = 0;
+        for (int piece = 0; piece < initialSquares.length; ++piece) {
+            if (kindOf(piece) != KING && kindOf(piece) != ROOK) {
+                unmoved |= board.getPieces(colorOf(piece), kindOf(piece)) & initialSquares[piece];
+            }
+        }
+        int castlingRights = board.getCastlingRights();
+        for (int color = WHITE; color <= BLACK; ++color) {
+            int row = color == WHITE ? 1 : 8;
+            int kingside = color == WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+            int queenside = color == WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+            if ((castlingRights & (kingside | queenside)) != 0) {
+                unmoved |= 1L << square(5, row);
+            }
+            if ((castlingRights & kingside) != 0) {
+                unmoved |= 1L << square(8, row);
+            }
+            if ((castlingRights & queenside) != 0) {
+                unmoved |= 1L << square(1, row);
+            }
+        }
+        return unmoved;
+    }
+    
+    private static void parseFields(CharSequence fen, Board board) {
+        final int length = fen.length();
+        int i = skipSpaces(fen, 0);
+        int col = 1, row = 8;
+        for (; !isFieldEnd(fen, i); ++i) {
+            char c = fen.charAt(i);
+            if (c == '/' && col == 9 && row > 1) {
+                col = 1;
+                --row;
+            } else if (c >= '1' && c <= '8' && col + c - '0' <= 9) {
+                col += c - '0';
+            } else if (LETTERS.indexOf(c) >= 0 && col <= 8) {
+                int piece = LETTERS.indexOf(c);
+                if (kindOf(piece) == PAWN && (row == 1 || row == 8)) {
+                    throw impossible(fen, "pawn on rank " + row);
+                }
+                board.put(square(col++, row), piece);
+            } else {
+                throw malformed(fen, "bad piece placement");
+            }
+        }
+        if (col != 9 || row != 1) {
+            throw malformed(fen, "bad piece placement");
+        }
+        
+        i = nextField(fen, i);
+        char side = fen.charAt(i++);
+        if (side != 'w' && side != 'b' || !isFieldEnd(fen, i)) {
+            throw malformed(fen, "bad side to move");
+        }
+        board.setSideToMove(side == 'w' ? WHITE : BLACK);
+        
+        i = nextField(fen, i);
+        int castlingRights = 0;
+        if (fen.charAt(i) == '-') {
+            ++i;
+        } else {
+            for (; !isFieldEnd(fen, i); ++i) {
+                int right = CASTLING_LETTERS.indexOf(fen.charAt(i));
+                if (right < 0) {
+                    throw malformed(fen, "bad castling rights");
+                }
+                castlingRights |= 1 << right;
+            }
+        }
+        if (!isFieldEnd(fen, i)) {
+            throw malformed(fen, "bad castling rights");
+        }
+        board.setCastlingRights(castlingRights & possibleCastlingRights(board));
+        
+        i = nextField(fen, i);
+        if (fen.charAt(i) == '-') {
+            ++i;
+        } else if (i + 1 < length && fen.charAt(i) >= 'a' && fen.charAt(i) <= 'h'
+                   && fen.charAt(i + 1) == (side == 'w' ? '6' : '3')) {
+            int enPassantColumn = fen.charAt(i) - 'a';
+            if (isJustPassed(board, enPassantColumn)) {
+                board.setEnPassantColumn(enPassantColumn);
+            }
+            i += 2;
+        }
+        if (!isFieldEnd(fen, i)) {
+            throw malformed(fen, "bad en passant square");
+        }
+        
+        // halfmove clock and fullmove number
+        for (int counter = 0; counter < 2 && (i = skipSpaces(fen, i)) < length; ++counter) {
+            final int start = i;
+            while (i < length && fen.charAt(i) >= '0' && fen.charAt(i) <= '9') {
+                ++i;
+            }
+            if (i == start || !isFieldEnd(fen, i)) {
+                throw malformed(fen, "bad move counters");
+            }
+        }
+        if (skipSpaces(fen, i) < length) {
+            throw malformed(fen, "text after the move counters");
+        }
+        
+        for (int color = WHITE; color <= BLACK; ++color) {
+            if (Long.bitCount(board.getPieces(color, KING)) != 1) {
+                throw impossible(fen, (color == WHITE ? "white" : "black") + " doesn't have exactly one king");
+            }
+        }
+        if (board.isInCheck(board.getSideToMove() ^ 1)) {
+            throw impossible(fen, "the side that just moved is in check");
+        }
+    }
+    
+    private static int possibleCastlingRights(Board board) {
+        int rights = 0;
+        if (board.pieceAt(square(5, 1)) == piece(WHITE, KING)) {
+            rights |= board.pieceAt(square(8, 1)) == piece(WHITE, ROOK) ? WHITE_KINGSIDE : 0;
+            rights |= board.pieceAt(square(1, 1)) == piece(WHITE, ROOK) ? WHITE_QUEENSIDE : 0;
+        }
+        if (board.pieceAt(square(5, 8)) == piece(BLACK, KING)) {
+            rights |= board.pieceAt(square(8, 8)) == piece(BLACK, ROOK) ? BLACK_KINGSIDE : 0;
+            rights |= board.pieceAt(square(1, 8)) == piece(BLACK, ROOK) ? BLACK_QUEENSIDE : 0;
+        }
+        return rights;
+    }
+    
+    /**
+     * @param enPassantColumn from 0
+     * @return true, if the side that just moved has a pawn that can have advanced two squares on the column
+     */
+    private static boolean isJustPassed(Board board, int enPassantColumn) {
+        final int color = board.getSideToMove() ^ 1;
+        final int row = color == WHITE ? 4 : 5, back = color == WHITE ? -1 : 1;
+        return board.pieceAt(square(enPassantColumn + 1, row)) == piece(color, PAWN)
+               && board.pieceAt(square(enPassantColumn + 1, row + back)) == EMPTY
+               && board.pieceAt(square(enPassantColumn + 1, row + 2 * back)) == EMPTY;
+    }
+    
+    /**
+     * @return index of the next field, after the whitespace that has to end the current one
+     */
+    private static int nextField(CharSequence fen, int i) {
+        if (i == fen.length() || !isSpace(fen.charAt(i)) || (i = skipSpaces(fen, i)) == fen.length()) {
+            throw malformed(fen, "missing fields");
+        }
+        return i;
+    }
+    
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && isSpace(fen.charAt(i))) {
+            ++i;
+        }
+        return i;
+    }
+    
+    private static boolean isFieldEnd(CharSequence fen, int i) {
+        return i == fen.length() || isSpace(fen.charAt(i));
+    }
+    
+    private static boolean isSpace(char c) {
+        return c <= ' ';
+    }
+    
+    private static IllegalArgumentException malformed(CharSequence fen, String problem) {
+        return new IllegalArgumentException("Malformed FEN, " + problem + ": " + fen);
+    }
+    
+    private static IllegalArgumentException impossible(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Impossible position, " + reason + ": " + fen);
+    }
+}
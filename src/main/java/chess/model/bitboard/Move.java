@@ -0,0 +1,70 @@
+package chess.model.bitboard;
+
+import chess.domain.Coordinates;
+import chess.domain.PieceKind;
+
+/**
+ * Moves packed into a single int, so move lists can be kept in primitive buffers. Bits 0-5 hold the square the
+ * piece moves from, bits 6-11 the square it moves to (see {@link Board} for square indexes), bits 12-13 the type of
+ * the move and bits 14-16 the ordinal of the {@link PieceKind} chosen for promotion. Castling is encoded as the king
+ * move. Zero is never a valid move and is used as "no move".
+ */
+public final class Move {
+    
+    public static final int NONE = 0;
+    public static final int MAX_MOVES = 256; // enough for any reachable position
+    
+    public static final int NORMAL = 0, CASTLING = 1, EN_PASSANT = 2, PROMOTION = 3;
+    
+    private Move() {
+    }
+    
+    public static int of(int from, int to) {
+        return from | to << 6;
+    }
+    
+    public static int of(int from, int to, int type) {
+        return from | to << 6 | type << 12;
+    }
+    
+    public static int promotion(int from, int to, int kind) {
+        return from | to << 6 | PROMOTION << 12 | kind << 14;
+    }
+    
+    public static int from(int move) {
+        return move & 63;
+    }
+    
+    public static int to(int move) {
+        return move >>> 6 & 63;
+    }
+    
+    public static int type(int move) {
+        return move >>> 12 & 3;
+    }
+    
+    public static int promotionKind(int move) {
+        return move >>> 14 & 7;
+    }
+    
+    public static Coordinates getFrom(int move) {
+        return Board.coordinates(from(move));
+    }
+    
+    public static Coordinates getTo(int move) {
+        return Board.coordinates(to(move));
+    }
+    
+    /**
+     * @return the piece chosen for promotion, or null if the move is not a promotion
+     */
+    public static PieceKind getPromotionChoice(int move) {
+        return type(move) == PROMOTION ? PieceKind.values()[promotionKind(move)] : null;
+    }
+    
+    public static String toString(int move) {
+        String ret = getFrom(move) + "-" + getTo(move);
+        PieceKind promotionChoice = getPromotionChoice(move);
+        return promotionChoice == null ? ret : ret + " " + promotionChoice.getName();
+    }
+}
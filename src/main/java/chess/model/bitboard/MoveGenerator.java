@@ -0,0 +1,225 @@
+package chess.model.bitboard;
+
+import static chess.model.bitboard.Board.*;
+
+/**
+ * Generates legal moves of the side to move into caller-supplied buffers, see {@link Move} for the encoding.
+ * Neither the board nor the heap is touched: the pieces pinned to the king and the squares that resolve a check are
+ * computed once per position, and every pseudo-legal move is then filtered with a couple of bit tests.
+ */
+public final class MoveGenerator {
+    
+    private static final int[] promotionKinds = {QUEEN, ROOK, BISHOP, KNIGHT};
+    
+    private MoveGenerator() {
+    }
+    
+    /**
+     * @param moves buffer of at least {@link Move#MAX_MOVES} elements
+     * @return number of moves written to the buffer
+     */
+    public static int generateLegalMoves(Board board, int[] moves) {
+        final int us = board.getSideToMove();
+        final long own = board.getPieces(us), occupied = board.getOccupied();
+        final long pinned = pinnedPieces(board, us), checkMask = checkMask(board, us);
+        int n = 0;
+        
+        int king = board.kingSquare(us);
+        n = addMoves(board, moves, n, king, Attacks.king(king) & ~own, pinned, checkMask);
+        if (checkMask == 0) {
+            return n; // double check, only the king can move
+        }
+        
+        n = generatePawnMoves(board, moves, n, pinned, checkMask);
+        
+        for (long knights = board.getPieces(us, KNIGHT) & ~pinned; knights != 0; knights &= knights - 1) {
+            int from = Long.numberOfTrailingZeros(knights);
+            n = addMoves(board, moves, n, from, Attacks.knight(from) & ~own, pinned, checkMask);
+        }
+        for (long bishops = board.getPieces(us, BISHOP); bishops != 0; bishops &= bishops - 1) {
+            int from = Long.numberOfTrailingZeros(bishops);
+            n = addMoves(board, moves, n, from, Attacks.bishop(from, occupied) & ~own, pinned, checkMask);
+        }
+        for (long rooks = board.getPieces(us, ROOK); rooks != 0; rooks &= rooks - 1) {
+            int from = Long.numberOfTrailingZeros(rooks);
+            n = addMoves(board, moves, n, from, Attacks.rook(from, occupied) & ~own, pinned, checkMask);
+        }
+        for (long queens = board.getPieces(us, QUEEN); queens != 0; queens &= queens - 1) {
+            int from = Long.numberOfTrailingZeros(queens);
+            n = addMoves(board, moves, n, from, Attacks.queen(from, occupied) & ~own, pinned, checkMask);
+        }
+        
+        return generateCastling(board, moves, n);
+    }
+    
+    /**
+     * @return pieces of the given color that stand alone between their king and an enemy slider aiming at it
+     */
+    public static long pinnedPieces(Board board, int color) {
+        final int king = board.kingSquare(color), them = color ^ 1;
+        final long occupied = board.getOccupied(), queens = board.getPieces(them, QUEEN);
+        long snipers = Attacks.rook(king, 0) & (board.getPieces(them, ROOK) | queens)
+                       | Attacks.bishop(king, 0) & (board.getPieces(them, BISHOP) | queens);
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (blockers != 0 && (blockers & blockers - 1) == 0) {
+                pinned |= blockers & board.getPieces(color);
+            }
+        }
+        return pinned;
+    }
+    
+    /**
+     * @return squares a piece other than the king has to move to in order to resolve a check: everything when the
+     * king isn't in check, the checker and the squares between it and the king on a single check, nothing on a
+     * double check
+     */
+    public static long checkMask(Board board, int color) {
+        final int king = board.kingSquare(color);
+        long checkers = board.attackersTo(king, board.getOccupied(), color ^ 1);
+        if (checkers == 0) {
+            return ~0L;
+        }
+        if ((checkers & checkers - 1) != 0) {
+            return 0;
+        }
+        return checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+    }
+    
+    /**
+     * Checks a single move whose piece geometry was already validated, e.g. by
+     * {@link chess.model.pieces.Piece#checkMoveOnEmptyBoard}: the path is clear, the king isn't left attacked and
+     * castling and en passant are currently allowed.
+     *
+     * @return true, if the move is legal on this board
+     */
+    public static boolean isLegal(Board board, int move) {
+        final int us = board.getSideToMove();
+        final int from = Move.from(move), to = Move.to(move);
+        switch (Move.type(move)) {
+            case Move.CASTLING:
+                return isCastlingLegal(board, from, to);
+            case Move.EN_PASSANT:
+                if (board.getEnPassantColumn() != (to & 7) || board.pieceAt(from) != piece(us, PAWN)) {
+                    return false;
+                }
+                break;
+            default:
+                if ((Attacks.between(from, to) & board.getOccupied()) != 0) {
+                    return false;
+                }
+                break;
+        }
+        return isLegal(board, move, pinnedPieces(board, us), checkMask(board, us));
+    }
+    
+    private static boolean isLegal(Board board, int move, long pinned, long checkMask) {
+        final int us = board.getSideToMove(), them = us ^ 1;
+        final int from = Move.from(move), to = Move.to(move);
+        final int king = board.kingSquare(us);
+        if (from == king) {
+            // the king itself mustn't shadow a slider's ray to the square it steps back to
+            return board.attackersTo(to, board.getOccupied() & ~(1L << king), them) == 0;
+        }
+        if (Move.type(move) == Move.EN_PASSANT) {
+            // two pawns leave the same row at once, which no pin mask describes, so test the resulting occupancy
+            long captured = 1L << ((from & ~7) | (to & 7));
+            long occupied = board.getOccupied() & ~(1L << from | captured) | 1L << to;
+            return (board.attackersTo(king, occupied, them) & ~captured) == 0;
+        }
+        if ((checkMask & 1L << to) == 0) {
+            return false;
+        }
+        return (pinned & 1L << from) == 0 || (Attacks.line(king, from) & 1L << to) != 0;
+    }
+    
+    private static int addMoves(Board board, int[] moves, int n, int from, long targets, long pinned,
+                                long checkMask) {
+        for (; targets != 0; targets &= targets - 1) {
+            int move = Move.of(from, Long.numberOfTrailingZeros(targets));
+            if (isLegal(board, move, pinned, checkMask)) {
+                moves[n++] = move;
+            }
+        }
+        return n;
+    }
+    
+    private static int addPawnMoves(Board board, int[] moves, int n, int from, int to, long pinned,
+                                    long checkMask) {
+        if (!isLegal(board, Move.of(from, to), pinned, checkMask)) {
+            return n;
+        }
+        int row = to >>> 3;
+        if (row == 0 || row == 7) {
+            for (int kind : promotionKinds) {
+                moves[n++] = Move.promotion(from, to, kind);
+            }
+        } else {
+            moves[n++] = Move.of(from, to);
+        }
+        return n;
+    }
+    
+    private static int generatePawnMoves(Board board, int[] moves, int n, long pinned, long checkMask) {
+        final int us = board.getSideToMove();
+        final long enemy = board.getPieces(us ^ 1), occupied = board.getOccupied();
+        final int forward = us == WHITE ? 8 : -8;
+        final int startRow = us == WHITE ? 1 : 6;
+        final int enPassantRow = us == WHITE ? 4 : 3;
+        final int enPassantColumn = board.getEnPassantColumn();
+        
+        for (long pawns = board.getPieces(us, PAWN); pawns != 0; pawns &= pawns - 1) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            int to = from + forward;
+            if ((occupied & 1L << to) == 0) {
+                n = addPawnMoves(board, moves, n, from, to, pinned, checkMask);
+                if (from >>> 3 == startRow && (occupied & 1L << (to + forward)) == 0) {
+                    n = addPawnMoves(board, moves, n, from, to + forward, pinned, checkMask);
+                }
+            }
+            for (long captures = Attacks.pawn(us, from) & enemy; captures != 0; captures &= captures - 1) {
+                n = addPawnMoves(board, moves, n, from, Long.numberOfTrailingZeros(captures), pinned, checkMask);
+            }
+            if (enPassantColumn != NO_EN_PASSANT && from >>> 3 == enPassantRow
+                && Math.abs((from & 7) - enPassantColumn) == 1) {
+                int move = Move.of(from, (from & ~7) + forward + enPassantColumn, Move.EN_PASSANT);
+                if (isLegal(board, move, pinned, checkMask)) {
+                    moves[n++] = move;
+                }
+            }
+        }
+        return n;
+    }
+    
+    private static int generateCastling(Board board, int[] moves, int n) {
+        final int us = board.getSideToMove();
+        final int king = us == WHITE ? square(5, 1) : square(5, 8);
+        if (isCastlingLegal(board, king, king + 2)) {
+            moves[n++] = Move.of(king, king + 2, Move.CASTLING);
+        }
+        if (isCastlingLegal(board, king, king - 2)) {
+            moves[n++] = Move.of(king, king - 2, Move.CASTLING);
+        }
+        return n;
+    }
+    
+    private static boolean isCastlingLegal(Board board, int king, int kingTo) {
+        final int us = board.getSideToMove(), them = us ^ 1;
+        final boolean kingside = kingTo > king;
+        final int right = us == WHITE ? (kingside ? WHITE_KINGSIDE : WHITE_QUEENSIDE)
+                                      : (kingside ? BLACK_KINGSIDE : BLACK_QUEENSIDE);
+        final int rook = kingside ? king + 3 : king - 4;
+        if ((board.getCastlingRights() & right) == 0 || king != (us == WHITE ? square(5, 1) : square(5, 8))
+            || board.pieceAt(king) != piece(us, KING) || board.pieceAt(rook) != piece(us, ROOK)) {
+            return false;
+        }
+        if ((Attacks.between(king, rook) & board.getOccupied()) != 0) {
+            return false;
+        }
+        // the king may not castle out of, through or into check
+        final int step = kingside ? 1 : -1;
+        return !board.isAttacked(king, them) && !board.isAttacked(king + step, them)
+               && !board.isAttacked(kingTo, them);
+    }
+}
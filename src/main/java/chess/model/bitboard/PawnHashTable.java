@@ -0,0 +1,82 @@
+package chess.model.bitboard;
+
+/**
+ * Fixed-size cache of pawn structure scores keyed by {@link Board#getPawnKey()}. Pawns move rarely during a search,
+ * so most positions evaluated share their pawn structure with one scored before. A new entry always replaces the one
+ * in its slot.
+ * <p>
+ * Not thread-safe, every search thread needs its own table.
+ */
+public final class PawnHashTable {
+    
+    private final long[] keys;
+    // packed middlegame and endgame scores, see Evaluation
+    private final int[] scores;
+    private final int mask;
+    
+    private long hits;
+    private long misses;
+    
+    /**
+     * @param entries number of entries, rounded down to a power of two
+     */
+    public PawnHashTable(int entries) {
+        if (entries < 1) {
+            throw new IllegalArgumentException("Table size must be positive: " + entries);
+        }
+        int size = Integer.highestOneBit(entries);
+        keys = new long[size];
+        scores = new int[size];
+        mask = size - 1;
+    }
+    
+    /**
+     * @return packed pawn structure score of the position, from the table or computed and stored
+     */
+    int pawnStructure(Board board) {
+        long key = board.getPawnKey();
+        int index = (int) key & mask;
+        // an empty slot has key 0 and score 0, which is right for the only structure with that key: no pawns
+        if (keys[index] == key) {
+            ++hits;
+            return scores[index];
+        }
+        ++misses;
+        int score = Evaluation.pawnStructure(board);
+        keys[index] = key;
+        scores[index] = score;
+        return score;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = 0;
+            scores[i] = 0;
+        }
+        resetStatistics();
+    }
+    
+    public int getSize() {
+        return mask + 1;
+    }
+    
+    public long getHits() {
+        return hits;
+    }
+    
+    public long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * @return share of lookups found in the table, 0 if there were none
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+    
+    public void resetStatistics() {
+        hits = misses = 0;
+    }
+}
@@ -0,0 +1,82 @@
+package chess.model.bitboard;
+
+import java.util.Random;
+
+/**
+ * Random keys for Zobrist hashing of positions. A position key is the XOR of the keys of its pieces on their squares,
+ * of the key of its castling rights (including "no rights"), of its en passant column and of the side to move if
+ * black is to move. Keys are generated from a fixed seed, so hashes are stable between runs.
+ */
+public final class Zobrist {
+    
+    private static final long[][] pieceSquareKeys = new long[12][64];
+    private static final long[] castlingKeys = new long[16];
+    private static final long[] enPassantKeys = new long[8];
+    private static final long blackToMoveKey;
+    
+    static {
+        Random random = new Random(0x5EED_C4E55L);
+        for (long[] keys : pieceSquareKeys) {
+            for (int sq = 0; sq < 64; ++sq) {
+                keys[sq] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < castlingKeys.length; ++i) {
+            castlingKeys[i] = random.nextLong();
+        }
+        for (int i = 0; i < enPassantKeys.length; ++i) {
+            enPassantKeys[i] = random.nextLong();
+        }
+        blackToMoveKey = random.nextLong();
+    }
+    
+    private Zobrist() {
+    }
+    
+    public static long piece(int piece, int square) {
+        return pieceSquareKeys[piece][square];
+    }
+    
+    public static long castling(int castlingRights) {
+        return castlingKeys[castlingRights];
+    }
+    
+    /**
+     * @return key of the en passant column, or 0 if there's none
+     */
+    public static long enPassant(int column) {
+        return column == Board.NO_EN_PASSANT ? 0 : enPassantKeys[column];
+    }
+    
+    public static long blackToMove() {
+        return blackToMoveKey;
+    }
+    
+    /**
+     * Computes the key from scratch. {@link Board#getKey()} keeps the same value up to date incrementally, this is
+     * meant for checking it.
+     */
+    public static long keyOf(Board board) {
+        long key = castling(board.getCastlingRights()) ^ enPassant(board.getEnPassantColumn());
+        for (int sq = 0; sq < 64; ++sq) {
+            if (board.pieceAt(sq) != Board.EMPTY) {
+                key ^= piece(board.pieceAt(sq), sq);
+            }
+        }
+        return board.getSideToMove() == Board.BLACK ? key ^ blackToMoveKey : key;
+    }
+    
+    /**
+     * Computes the key of the pawns alone from scratch, see {@link Board#getPawnKey()}.
+     */
+    public static long pawnKeyOf(Board board) {
+        long key = 0;
+        for (int sq = 0; sq < 64; ++sq) {
+            int piece = board.pieceAt(sq);
+            if (piece != Board.EMPTY && Board.kindOf(piece) == Board.PAWN) {
+                key ^= piece(piece, sq);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,15 @@
+package chess.model.book;
+
+import lombok.Value;
+
+/**
+ * A move the opening book gives for a position, with its weight: the higher, the more often it should be played.
+ */
+@Value
+public class BookMove {
+    
+    // legal in the position, see chess.model.bitboard.Move
+    int move;
+    // 0 for moves the book knows but advises against
+    int weight;
+}
@@ -0,0 +1,152 @@
+package chess.model.book;
+
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Fen;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Read-only opening book in the Polyglot format, asked for moves before spending time on a search.
+ * <p>
+ * The file is a sequence of 16-byte big-endian entries sorted by position key (see {@link PolyglotKeys}): the key
+ * (long), the move (short), its weight (short) and learning data (int), which is ignored. A move packs the target
+ * column and row in bits 0-5, the origin in bits 6-11 and the promotion piece in bits 12-14 (knight 1 to queen 4);
+ * castling is written as the king taking its own rook.
+ * <p>
+ * The whole file is memory-mapped when the book is opened, and the entries of a position are found by binary search,
+ * so a lookup reads a few pages of the file and nothing is loaded onto the heap. Safe to use from many threads.
+ */
+public final class PolyglotBook {
+    
+    static final int ENTRY_BYTES = 16;
+    
+    // Polyglot promotion pieces, indexed by Board kind
+    private static final int[] promotionCodes = {0, 3, 1, 2, 4, 0};
+    
+    private final PolyglotKeys keys;
+    private final MappedByteBuffer entries;
+    private final int size;
+    
+    private PolyglotBook(PolyglotKeys keys, MappedByteBuffer entries, int size) {
+        this.keys = keys;
+        this.entries = entries;
+        this.size = size;
+    }
+    
+    /**
+     * Maps the book into memory. The file is not kept open.
+     *
+     * @throws IOException if the file is not a Polyglot book, or the Polyglot random numbers are missing
+     */
+    public static PolyglotBook open(@NonNull Path path) throws IOException {
+        PolyglotKeys keys = PolyglotKeys.load();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            if (fileSize % ENTRY_BYTES != 0 || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Not a Polyglot book");
+            }
+            MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            return new PolyglotBook(keys, entries, (int) (fileSize / ENTRY_BYTES));
+        }
+    }
+    
+    /**
+     * @return number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @return legal moves the book gives for the position, by decreasing weight; empty if the position is not in the
+     * book
+     */
+    public List<BookMove> getMoves(@NonNull GameState position) {
+        Board board = new Board();
+        Fen.parse(position.getFen(), board);
+        final long key = keys.key(board);
+        int first = firstEntry(key);
+        if (first == size || entries.getLong(first * ENTRY_BYTES) != key) {
+            return Collections.emptyList();
+        }
+        
+        int[] legalMoves = new int[Move.MAX_MOVES];
+        int legalMoveCount = position.generateLegalMoves(legalMoves);
+        List<BookMove> moves = new ArrayList<>();
+        for (int i = first; i < size && entries.getLong(i * ENTRY_BYTES) == key; ++i) {
+            int bookMove = entries.getShort(i * ENTRY_BYTES + 8) & 0xFFFF;
+            int weight = entries.getShort(i * ENTRY_BYTES + 10) & 0xFFFF;
+            for (int j = 0; j < legalMoveCount; ++j) {
+                if (encode(legalMoves[j]) == bookMove) {
+                    moves.add(new BookMove(legalMoves[j], weight));
+                    break;
+                }
+            }
+        }
+        moves.sort((a, b) -> Integer.compare(b.getWeight(), a.getWeight()));
+        return moves;
+    }
+    
+    /**
+     * Picks one of the book moves at random, each with a chance proportional to its weight.
+     *
+     * @return the move, or {@link Move#NONE} if the position is not in the book or all its moves have weight 0
+     */
+    public int pickMove(@NonNull GameState position, @NonNull Random random) {
+        List<BookMove> moves = getMoves(position);
+        int totalWeight = 0;
+        for (BookMove move : moves) {
+            totalWeight += move.getWeight();
+        }
+        if (totalWeight == 0) {
+            return Move.NONE;
+        }
+        int r = random.nextInt(totalWeight);
+        for (BookMove move : moves) {
+            r -= move.getWeight();
+            if (r < 0) {
+                return move.getMove();
+            }
+        }
+        throw new AssertionError();
+    }
+    
+    /**
+     * @return index of the first entry whose key isn't less than the given one, as unsigned numbers
+     */
+    private int firstEntry(long key) {
+        int low = 0, high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(entries.getLong(middle * ENTRY_BYTES), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * @return the move as Polyglot writes it
+     */
+    static int encode(int move) {
+        int from = Move.from(move), to = Move.to(move);
+        if (Move.type(move) == Move.CASTLING) {
+            to = to > from ? to + 1 : to - 2; // the rook's square
+        }
+        int encoded = from << 6 | to;
+        return Move.type(move) == Move.PROMOTION ? encoded | promotionCodes[Move.promotionKind(move)] << 12 : encoded;
+    }
+}
@@ -0,0 +1,157 @@
+package chess.model.book;
+
+import chess.domain.Coordinates;
+import chess.domain.PieceKind;
+import chess.domain.Time;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Fen;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.gameState.impl.BitboardGameState;
+import chess.model.history.impl.UndoMoveHistory;
+import chess.model.history.io.PgnListener;
+import chess.model.history.io.PgnReader;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link PolyglotBook} from moves played in known positions, typically the first moves of many games. The
+ * weight of a move is the number of times it was added; the weights of a position are scaled down together if the
+ * highest doesn't fit in 16 bits. The book is kept in memory until it's written.
+ * <p>
+ * Usage: {@code PolyglotBookWriter book plies file.pgn...}, writes a book of the first plies of every game.
+ */
+public final class PolyglotBookWriter {
+    
+    private static final int MAX_WEIGHT = 0xFFFF;
+    
+    private final PolyglotKeys keys;
+    private final Board board = new Board();
+    // weight of each move as Polyglot writes it, by position key
+    private final Map<Long, Map<Integer, Integer>> weights = new HashMap<>();
+    
+    /**
+     * @throws IOException if the Polyglot random numbers are missing, see {@link PolyglotKeys}
+     */
+    public PolyglotBookWriter() throws IOException {
+        keys = PolyglotKeys.load();
+    }
+    
+    /**
+     * Adds 1 to the weight of a legal move of the position.
+     */
+    public void add(@NonNull GameState position, int move) {
+        add(position, move, 1);
+    }
+    
+    public void add(@NonNull GameState position, int move, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative: " + weight);
+        }
+        Fen.parse(position.getFen(), board);
+        weights.computeIfAbsent(keys.key(board), key -> new HashMap<>())
+               .merge(PolyglotBook.encode(move), weight, Integer::sum);
+    }
+    
+    /**
+     * @return number of entries written by {@link #write(Path)}
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Integer, Integer> moves : weights.values()) {
+            size += moves.size();
+        }
+        return size;
+    }
+    
+    /**
+     * Writes the book, replacing the file if it exists.
+     */
+    public void write(@NonNull Path path) throws IOException {
+        List<Long> positions = new ArrayList<>(weights.keySet());
+        positions.sort(Long::compareUnsigned);
+        ByteBuffer buffer = ByteBuffer.allocate(size() * PolyglotBook.ENTRY_BYTES);
+        for (long key : positions) {
+            List<Map.Entry<Integer, Integer>> moves = new ArrayList<>(weights.get(key).entrySet());
+            moves.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+            int highest = moves.get(0).getValue();
+            for (Map.Entry<Integer, Integer> move : moves) {
+                long weight = move.getValue();
+                if (highest > MAX_WEIGHT) {
+                    weight = Math.max(weight * MAX_WEIGHT / highest, weight == 0 ? 0 : 1);
+                }
+                buffer.putLong(key).putShort((short) (int) move.getKey()).putShort((short) weight).putInt(0);
+            }
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: PolyglotBookWriter book plies file.pgn...");
+            return;
+        }
+        PolyglotBookWriter writer = new PolyglotBookWriter();
+        final int plies = Integer.parseInt(args[1]);
+        final Time noTime = Time.fromString("0");
+        int[] moves = new int[Move.MAX_MOVES];
+        for (int i = 2; i < args.length; ++i) {
+            try (PgnReader reader = PgnReader.open(Paths.get(args[i]), BitboardGameState::new, UndoMoveHistory::new,
+                                                   noTime)) {
+                boolean more = true;
+                while (more) {
+                    GameState position = new BitboardGameState(noTime);
+                    int[] ply = {0};
+                    PgnListener listener = new PgnListener() {
+                        
+                        @Override
+                        public void tag(String name, String value) {
+                            if (name.equals("FEN")) {
+                                position.setFen(value);
+                            }
+                        }
+                        
+                        @Override
+                        public void move(Coordinates moveFrom, Coordinates moveTo, PieceKind promotionChoice) {
+                            if (ply[0]++ >= plies) {
+                                return;
+                            }
+                            int count = position.generateLegalMoves(moves);
+                            for (int j = 0; j < count; ++j) {
+                                if (Move.getFrom(moves[j]).equals(moveFrom) && Move.getTo(moves[j]).equals(moveTo)
+                                    && Move.getPromotionChoice(moves[j]) == promotionChoice) {
+                                    writer.add(position, moves[j]);
+                                    position.makeMove(moves[j]);
+                                    return;
+                                }
+                            }
+                        }
+                    };
+                    try {
+                        more = reader.readGame(listener);
+                    } catch (IOException e) {
+                        System.err.println(args[i] + ":" + reader.getLineNumber() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        writer.write(Paths.get(args[0]));
+        System.out.println(writer.size() + " entries");
+    }
+}
@@ -0,0 +1,87 @@
+package chess.model.book;
+
+import chess.model.bitboard.Attacks;
+import chess.model.bitboard.Board;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Scanner;
+
+import static chess.model.bitboard.Board.*;
+
+/**
+ * Position keys as Polyglot books store them. Like {@link chess.model.bitboard.Zobrist} keys they XOR one random
+ * number per piece on its square, per castling right, for the en passant column and for the side to move, but the
+ * numbers and the layout are those of the Polyglot book format, so books written by other programs can be read.
+ * <p>
+ * The 781 numbers of the format are read from the {@value #RESOURCE} resource next to this class, written in hex and
+ * separated by whitespace. With them, the key of the initial position is {@code 463B96181691FC9C}.
+ */
+final class PolyglotKeys {
+    
+    static final String RESOURCE = "polyglot-random.txt";
+    
+    private static final int CASTLING_OFFSET = 768, EN_PASSANT_OFFSET = 772, TURN_OFFSET = 780, COUNT = 781;
+    // Polyglot orders kinds pawn, knight, bishop, rook, queen, king and puts black before white
+    private static final int[] kindOrder = {0, 3, 1, 2, 4, 5};
+    private static final int[] castlingRights = {WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE, BLACK_QUEENSIDE};
+    
+    private final long[] randoms;
+    
+    private PolyglotKeys(long[] randoms) {
+        this.randoms = randoms;
+    }
+    
+    /**
+     * @throws IOException if the resource is missing or doesn't hold 781 numbers
+     */
+    static PolyglotKeys load() throws IOException {
+        try (InputStream in = PolyglotKeys.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Polyglot random numbers not found: " + RESOURCE);
+            }
+            long[] randoms = new long[COUNT];
+            Scanner scanner = new Scanner(in, "US-ASCII");
+            int count = 0;
+            while (scanner.hasNext()) {
+                String number = scanner.next();
+                if (count == COUNT) {
+                    throw new IOException("More than " + COUNT + " Polyglot random numbers");
+                }
+                try {
+                    randoms[count++] = Long.parseUnsignedLong(number.startsWith("0x") ? number.substring(2) : number,
+                                                              16);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Bad Polyglot random number: " + number);
+                }
+            }
+            if (count != COUNT) {
+                throw new IOException("Only " + count + " Polyglot random numbers, " + COUNT + " expected");
+            }
+            return new PolyglotKeys(randoms);
+        }
+    }
+    
+    long key(Board board) {
+        long key = 0;
+        for (long s = board.getOccupied(); s != 0; s &= s - 1) {
+            int sq = Long.numberOfTrailingZeros(s), piece = board.pieceAt(sq);
+            int index = 2 * kindOrder[kindOf(piece)] + (colorOf(piece) == WHITE ? 1 : 0);
+            key ^= randoms[64 * index + sq];
+        }
+        for (int i = 0; i < castlingRights.length; ++i) {
+            if ((board.getCastlingRights() & castlingRights[i]) != 0) {
+                key ^= randoms[CASTLING_OFFSET + i];
+            }
+        }
+        // the en passant column only counts if a pawn stands next to the one that moved, even if it may not capture
+        int column = board.getEnPassantColumn(), side = board.getSideToMove();
+        if (column != NO_EN_PASSANT) {
+            int target = square(column + 1, side == WHITE ? 6 : 3);
+            if ((Attacks.pawn(side ^ 1, target) & board.getPieces(side, PAWN)) != 0) {
+                key ^= randoms[EN_PASSANT_OFFSET + column];
+            }
+        }
+        return side == WHITE ? key ^ randoms[TURN_OFFSET] : key;
+    }
+}
@@ -2,9 +2,9 @@ package chess.model.gameState;
 
 import chess.domain.Coordinates;
 import chess.domain.PieceKind;
-import chess.domain.exceptions.PromotionException;
 import chess.domain.Colors;
 import chess.domain.Time;
+import chess.model.bitboard.PawnHashTable;
 import chess.model.pieces.Piece;
 
 import java.io.Serializable;
@@ -15,7 +15,10 @@ public interface GameState extends Cloneable, Serializable {
     
     boolean isPaused();
     
-    void move(Coordinates moveFrom, Coordinates moveTo) throws PromotionException;
+    /**
+     * Applies a move that is neither castling, en passant nor promotion, those have their own methods.
+     */
+    void move(Coordinates moveFrom, Coordinates moveTo);
     
     Piece getPieceAt(Coordinates coordinates);
     
@@ -29,11 +32,22 @@ public interface GameState extends Cloneable, Serializable {
     
     void addPlayerTime(Time timeToAdd);
     
+    void setPlayerTime(Colors playerColor, Time time);
+    
     void setPieceAt(Coordinates coordinates, Piece piece);
     
     Coordinates findKing(Colors kingColor);
     
-    void decrementCurrentPlayerTime();
+    /**
+     * @return true, if a piece of the given color attacks the field; answered from attack maps kept up to date
+     * as moves are applied, so it takes constant time
+     */
+    boolean isSquareAttacked(Coordinates coordinates, Colors byColor);
+    
+    /**
+     * Charges the time the side to move has spent thinking to its clock.
+     */
+    void subtractCurrentPlayerTime(long elapsedNanos);
     
     Integer getLastMoveWasTwoFieldPawnAdvanceAtColumn();
     
@@ -43,5 +57,70 @@ public interface GameState extends Cloneable, Serializable {
     
     void castle(Coordinates from, Coordinates to);
     
+    /**
+     * Applies a legal move packed as described in {@link chess.model.bitboard.Move}, like the methods above do.
+     *
+     * @return undo record for {@link #unmakeMove(int, long)}: the captured piece, the castling rights and en
+     * passant column before the move and whether the pieces involved had moved before
+     */
+    long makeMove(int move);
+    
+    /**
+     * Takes back the move in place, which has to be the last one applied. Clocks are not changed.
+     *
+     * @param undo record returned by {@link #makeMove(int)}
+     */
+    void unmakeMove(int move, long undo);
+    
+    /**
+     * Writes all legal moves of the side to move into the buffer, packed as described in
+     * {@link chess.model.bitboard.Move}.
+     *
+     * @param moves buffer of at least {@link chess.model.bitboard.Move#MAX_MOVES} elements
+     * @return number of moves written
+     */
+    int generateLegalMoves(int[] moves);
+    
+    /**
+     * Tells whether a move of the side to move, packed as described in {@link chess.model.bitboard.Move}, is legal
+     * here. The piece geometry is assumed to be checked already, this only looks at blockers, pins, checks and the
+     * castling and en passant rights. The board isn't modified.
+     */
+    boolean isLegalMove(int move);
+    
+    /**
+     * @return Zobrist key of the position (pieces, side to move, castling rights and en passant column), maintained
+     * incrementally by the methods that apply moves, see {@link chess.model.bitboard.Zobrist}
+     */
+    long getZobristKey();
+    
+    /**
+     * @return static evaluation of the position in centipawns, from the side to move's point of view, see
+     * {@link chess.model.bitboard.Evaluation}; its material and piece-square part is maintained incrementally like the
+     * Zobrist key
+     */
+    int evaluate();
+    
+    /**
+     * Same as {@link #evaluate()}, looking up the pawn structure scores in the cache first.
+     */
+    int evaluate(PawnHashTable pawnHash);
+    
+    /**
+     * Sets up the position given in Forsyth-Edwards Notation, as parsed by {@link chess.model.bitboard.Fen}. Clocks
+     * are not changed. The pieces standing on their initial squares count as never moved, except for kings and rooks
+     * without a castling right.
+     *
+     * @throws IllegalArgumentException if the FEN is malformed or the position impossible; the game state is then
+     *                                  left as it was
+     */
+    void setFen(CharSequence fen);
+    
+    /**
+     * @return the position in Forsyth-Edwards Notation. Moves are not counted, so the halfmove clock and the fullmove
+     * number are written as {@code 0 1}
+     */
+    String getFen();
+    
     GameState clone();
 }
@@ -0,0 +1,13 @@
+package chess.model.gameState;
+
+import chess.domain.Time;
+
+/**
+ * Creates game states set up for a new game. The implementation used by the application is chosen in
+ * {@link chess.config.Configuration}.
+ */
+@FunctionalInterface
+public interface GameStateFactory {
+    
+    GameState newGameState(Time timePerPlayer);
+}
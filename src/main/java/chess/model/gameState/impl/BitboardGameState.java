@@ -0,0 +1,272 @@
+package chess.model.gameState.impl;
+
+import chess.domain.Colors;
+import chess.domain.Coordinates;
+import chess.domain.PieceKind;
+import chess.domain.Time;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Evaluation;
+import chess.model.bitboard.Fen;
+import chess.model.bitboard.Move;
+import chess.model.bitboard.MoveGenerator;
+import chess.model.bitboard.PawnHashTable;
+import chess.model.gameState.GameState;
+import chess.model.pieces.Piece;
+
+/**
+ * GameState backed by a {@link Board}, so cloning copies a few primitive arrays instead of a grid of Piece objects.
+ * <p>
+ * Pieces returned by {@link #getPieceAt(Coordinates)} are shared instances and must not be mutated.
+ */
+public class BitboardGameState implements GameState {
+    
+    private static final long serialVersionUID = 5077875778556843603L;
+    
+    // [piece code][1 if the piece has moved]
+    private static final Piece[][] sharedPieces = new Piece[12][2];
+    
+    static {
+        for (Colors color : Colors.values()) {
+            for (PieceKind kind : PieceKind.values()) {
+                int piece = Board.piece(color, kind);
+                sharedPieces[piece][0] = Piece.produce(color, kind, false);
+                sharedPieces[piece][1] = Piece.produce(color, kind, true);
+            }
+        }
+    }
+    
+    // bits of undo records telling that the moving or the captured piece hadn't moved before
+    private static final long FROM_UNMOVED = 1L << Board.UNDO_BITS, TO_UNMOVED = FROM_UNMOVED << 1;
+    
+    private Board board;
+    // squares whose piece hasn't moved yet, kept to answer Piece.isHasMoved() like GameStateImpl does
+    private long unmoved;
+    
+    private Time whiteTime;
+    private Time blackTime;
+    private transient boolean isPaused = true;
+    
+    public BitboardGameState(Time timePerPlayer) {
+        newGame(timePerPlayer);
+    }
+    
+    private void newGame(Time timePerPlayer) {
+        board = Board.initial();
+        unmoved = 0xFFFF00000000FFFFL;
+        setTimeForPlayers(timePerPlayer);
+    }
+    
+    @Override
+    public void startOrResume() {
+        setPaused(false);
+    }
+    
+    @Override
+    public void endGame() {
+        setPaused(true);
+        board.clear();
+        unmoved = 0;
+    }
+    
+    @Override
+    public void move(Coordinates moveFrom, Coordinates moveTo) {
+        int from = Board.square(moveFrom), to = Board.square(moveTo);
+        board.move(from, to);
+        unmoved &= ~(1L << from | 1L << to);
+    }
+    
+    @Override
+    public void promote(Coordinates moveFrom, Coordinates moveTo, PieceKind pieceChosen) {
+        int from = Board.square(moveFrom), to = Board.square(moveTo);
+        board.promote(from, to, pieceChosen.ordinal());
+        unmoved &= ~(1L << from | 1L << to);
+    }
+    
+    @Override
+    public void castle(Coordinates moveFrom, Coordinates moveTo) {
+        int from = Board.square(moveFrom), to = Board.square(moveTo);
+        int rookFrom = to > from ? from + 3 : from - 4;
+        board.castle(from, to);
+        unmoved &= ~(1L << from | 1L << to | 1L << rookFrom | 1L << (from + to) / 2);
+    }
+    
+    @Override
+    public void enPassant(Coordinates moveFrom, Coordinates moveTo) {
+        int from = Board.square(moveFrom), to = Board.square(moveTo);
+        board.enPassant(from, to);
+        unmoved &= ~(1L << from | 1L << to);
+    }
+    
+    @Override
+    public long makeMove(int move) {
+        int from = Move.from(move), to = Move.to(move);
+        long undo = board.makeMove(move);
+        undo |= (unmoved & 1L << from) != 0 ? FROM_UNMOVED : 0;
+        undo |= (unmoved & 1L << to) != 0 ? TO_UNMOVED : 0;
+        unmoved &= ~(1L << from | 1L << to);
+        if (Move.type(move) == Move.CASTLING) {
+            unmoved &= ~(1L << (to > from ? from + 3 : from - 4));
+        }
+        return undo;
+    }
+    
+    @Override
+    public void unmakeMove(int move, long undo) {
+        int from = Move.from(move), to = Move.to(move);
+        board.unmakeMove(move, undo);
+        if (Move.type(move) == Move.CASTLING) {
+            // only unmoved kings and rooks castle
+            unmoved |= 1L << from | 1L << (to > from ? from + 3 : from - 4);
+            return;
+        }
+        unmoved |= (undo & FROM_UNMOVED) != 0 ? 1L << from : 0;
+        unmoved |= (undo & TO_UNMOVED) != 0 ? 1L << to : 0;
+    }
+    
+    @Override
+    public Colors getWhoseMove() {
+        return Colors.values()[board.getSideToMove()];
+    }
+    
+    @Override
+    public boolean isPaused() {
+        return isPaused;
+    }
+    
+    @Override
+    public void setPaused(boolean paused) {
+        this.isPaused = paused;
+    }
+    
+    @Override
+    public Piece getPieceAt(Coordinates coordinates) {
+        int sq = Board.square(coordinates);
+        int piece = board.pieceAt(sq);
+        if (piece == Board.EMPTY) {
+            return null;
+        }
+        return sharedPieces[piece][(unmoved & 1L << sq) == 0 ? 1 : 0];
+    }
+    
+    @Override
+    public void setPieceAt(Coordinates coordinates, Piece piece) {
+        int sq = Board.square(coordinates);
+        if (piece == null) {
+            board.remove(sq);
+            unmoved &= ~(1L << sq);
+            return;
+        }
+        board.put(sq, Board.piece(piece.getColor(), piece.getKind()));
+        if (piece.isHasMoved()) {
+            unmoved &= ~(1L << sq);
+        } else {
+            unmoved |= 1L << sq;
+        }
+    }
+    
+    @Override
+    public Time getPlayerTime(Colors playerColor) {
+        switch (playerColor) {
+            case WHITE:
+                return whiteTime.clone();
+            case BLACK:
+                return blackTime.clone();
+            default:
+                throw new AssertionError();
+        }
+    }
+    
+    @Override
+    public void addPlayerTime(Time timeToAdd) {
+        Time whoseTime = (getWhoseMove() == Colors.WHITE) ? blackTime : whiteTime;
+        // called after the move completes and the side to move toggles, see GameStateImpl
+        whoseTime.add(timeToAdd);
+    }
+    
+    @Override
+    public void setPlayerTime(Colors playerColor, Time time) {
+        if (playerColor == Colors.WHITE) {
+            whiteTime = new Time(time);
+        } else {
+            blackTime = new Time(time);
+        }
+    }
+    
+    @Override
+    public void subtractCurrentPlayerTime(long elapsedNanos) {
+        Time whoseTime = (getWhoseMove() == Colors.WHITE) ? whiteTime : blackTime;
+        whoseTime.subtract(elapsedNanos);
+    }
+    
+    private void setTimeForPlayers(Time timePerPlayer) {
+        whiteTime = new Time(timePerPlayer);
+        blackTime = new Time(timePerPlayer);
+    }
+    
+    @Override
+    public Coordinates findKing(Colors kingColor) {
+        return Board.coordinates(board.kingSquare(kingColor.ordinal()));
+    }
+    
+    @Override
+    public boolean isSquareAttacked(Coordinates coordinates, Colors byColor) {
+        return board.isAttacked(Board.square(coordinates), byColor.ordinal());
+    }
+    
+    @Override
+    public Integer getLastMoveWasTwoFieldPawnAdvanceAtColumn() {
+        int column = board.getEnPassantColumn();
+        return column == Board.NO_EN_PASSANT ? null : column + 1;
+    }
+    
+    @Override
+    public int generateLegalMoves(int[] moves) {
+        return MoveGenerator.generateLegalMoves(board, moves);
+    }
+    
+    @Override
+    public boolean isLegalMove(int move) {
+        return MoveGenerator.isLegal(board, move);
+    }
+    
+    @Override
+    public long getZobristKey() {
+        return board.getKey();
+    }
+    
+    @Override
+    public int evaluate() {
+        return Evaluation.evaluate(board);
+    }
+    
+    @Override
+    public int evaluate(PawnHashTable pawnHash) {
+        return Evaluation.evaluate(board, pawnHash);
+    }
+    
+    @Override
+    public void setFen(CharSequence fen) {
+        Board parsed = new Board();
+        Fen.parse(fen, parsed);
+        board = parsed;
+        unmoved = Fen.unmoved(parsed);
+    }
+    
+    @Override
+    public String getFen() {
+        return Fen.format(board);
+    }
+    
+    @Override
+    public GameState clone() {
+        try {
+            BitboardGameState copy = (BitboardGameState) super.clone();
+            copy.board = board.clone();
+            copy.whiteTime = whiteTime.clone();
+            copy.blackTime = blackTime.clone();
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError();
+        }
+    }
+}
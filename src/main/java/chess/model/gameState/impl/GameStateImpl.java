@@ -2,10 +2,14 @@ package chess.model.gameState.impl;
 
 import chess.domain.Coordinates;
 import chess.domain.PieceKind;
-import chess.domain.exceptions.PromotionException;
-import chess.domain.exceptions.TwoFieldsPawnAdvanceException;
 import chess.domain.Colors;
 import chess.domain.Time;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Evaluation;
+import chess.model.bitboard.Fen;
+import chess.model.bitboard.Move;
+import chess.model.bitboard.MoveGenerator;
+import chess.model.bitboard.PawnHashTable;
 import chess.model.pieces.Piece;
 import chess.model.gameState.GameState;
 
@@ -13,6 +17,8 @@ import static chess.domain.PieceKind.*;
 
 public class GameStateImpl implements GameState {
     
+    private static final long serialVersionUID = -2284476706426096089L;
+    
     private Piece[][] fields;
     
     private Time whiteTime;
@@ -23,6 +29,12 @@ public class GameStateImpl implements GameState {
     
     private Integer lastMoveWasTwoFieldPawnAdvanceAtColumn;
     
+    // bits of undo records telling that the moving or the captured piece hadn't moved before
+    private static final long FROM_UNMOVED = 1L << Board.UNDO_BITS, TO_UNMOVED = FROM_UNMOVED << 1;
+    
+    // bitboard copy of the position, kept in sync with fields; rebuilt from fields if missing (older saves)
+    private Board board;
+    
     public GameStateImpl(Time timePerPlayer) {
         fields = new Piece[9][9];
         newGame(timePerPlayer);
@@ -56,6 +68,7 @@ public class GameStateImpl implements GameState {
         }
         
         whoseMove = Colors.WHITE;
+        board = Board.initial();
         
         setTimeForPlayers(timePerPlayer);
     }
@@ -68,6 +81,7 @@ public class GameStateImpl implements GameState {
     @Override
     public void endGame() {
         setPaused(true);
+        board = null;
         
         for (int i = 0; i <= 8; ++i) {
             for (int j = 0; j <= 8; ++j) {
@@ -77,49 +91,128 @@ public class GameStateImpl implements GameState {
     }
     
     @Override
-    public void move(Coordinates moveFrom, Coordinates moveTo) throws PromotionException {
-        lastMoveWasTwoFieldPawnAdvanceAtColumn = null;
-        try {
-            getPieceAt(moveFrom).move(moveTo);
-        } catch (TwoFieldsPawnAdvanceException e) {
-            lastMoveWasTwoFieldPawnAdvanceAtColumn = moveTo.getCol();
-        }
-        setPieceAt(moveTo, getPieceAt(moveFrom));
-        setPieceAt(moveFrom, null);
-        toggleWhoseMove();
+    public void move(Coordinates moveFrom, Coordinates moveTo) {
+        getBoard().move(Board.square(moveFrom), Board.square(moveTo));
+        moveFields(moveFrom, moveTo);
     }
     
     @Override
     public void promote(Coordinates moveFrom, Coordinates moveTo, PieceKind pieceChosen) {
-        setPieceAt(moveTo, Piece.produce(getPieceAt(moveFrom).getColor(), pieceChosen));
-        setPieceAt(moveFrom, null);
-        lastMoveWasTwoFieldPawnAdvanceAtColumn = null;
-        toggleWhoseMove();
+        getBoard().promote(Board.square(moveFrom), Board.square(moveTo), pieceChosen.ordinal());
+        promoteFields(moveFrom, moveTo, pieceChosen);
     }
     
     @Override
     public void castle(Coordinates moveFrom, Coordinates moveTo) {
+        getBoard().castle(Board.square(moveFrom), Board.square(moveTo));
+        castleFields(moveFrom, moveTo);
+    }
+    
+    @Override
+    public void enPassant(Coordinates moveFrom, Coordinates moveTo) {
+        getBoard().enPassant(Board.square(moveFrom), Board.square(moveTo));
+        enPassantFields(moveFrom, moveTo);
+    }
+    
+    @Override
+    public long makeMove(int move) {
+        Coordinates moveFrom = Move.getFrom(move), moveTo = Move.getTo(move);
+        long undo = getBoard().makeMove(move);
+        undo |= getPieceAt(moveFrom).isHasMoved() ? 0 : FROM_UNMOVED;
+        undo |= getPieceAt(moveTo) == null || getPieceAt(moveTo).isHasMoved() ? 0 : TO_UNMOVED;
+        switch (Move.type(move)) {
+            case Move.NORMAL:
+                moveFields(moveFrom, moveTo);
+                break;
+            case Move.CASTLING:
+                castleFields(moveFrom, moveTo);
+                break;
+            case Move.EN_PASSANT:
+                enPassantFields(moveFrom, moveTo);
+                break;
+            case Move.PROMOTION:
+                promoteFields(moveFrom, moveTo, Move.getPromotionChoice(move));
+                break;
+            default:
+                throw new AssertionError();
+        }
+        return undo;
+    }
+    
+    @Override
+    public void unmakeMove(int move, long undo) {
+        Coordinates moveFrom = Move.getFrom(move), moveTo = Move.getTo(move);
+        getBoard().unmakeMove(move, undo);
+        toggleWhoseMove();
+        int enPassantColumn = getBoard().getEnPassantColumn();
+        lastMoveWasTwoFieldPawnAdvanceAtColumn = enPassantColumn == Board.NO_EN_PASSANT ? null : enPassantColumn + 1;
+        
+        Piece piece = getPieceAt(moveTo);
+        switch (Move.type(move)) {
+            case Move.CASTLING: {
+                // only unmoved kings and rooks castle
+                Coordinates dir = Coordinates.getDir(moveFrom, moveTo);
+                Coordinates rookPos = Coordinates.of(dir.getCol() > 0 ? 8 : 1, moveFrom.getRow());
+                setField(moveFrom, Piece.produce(whoseMove, KING));
+                setField(rookPos, Piece.produce(whoseMove, ROOK));
+                setField(moveFrom.plus(dir), null);
+                setField(moveTo, null);
+                return;
+            }
+            case Move.EN_PASSANT:
+                Colors enemy = whoseMove == Colors.WHITE ? Colors.BLACK : Colors.WHITE;
+                setField(Coordinates.of(moveTo.getCol(), moveFrom.getRow()), Piece.produce(enemy, PAWN, true));
+                setField(moveTo, null);
+                break;
+            default:
+                int captured = Board.capturedPiece(undo);
+                setField(moveTo, captured == Board.EMPTY ? null : produce(captured, (undo & TO_UNMOVED) == 0));
+                break;
+        }
+        if (Move.type(move) == Move.PROMOTION) {
+            piece = Piece.produce(whoseMove, PAWN, true);
+        }
+        setField(moveFrom, (undo & FROM_UNMOVED) != 0 ? Piece.produce(whoseMove, piece.getKind()) : piece);
+    }
+    
+    private static Piece produce(int piece, boolean hasMoved) {
+        return Piece.produce(Colors.values()[Board.colorOf(piece)], PieceKind.values()[Board.kindOf(piece)], hasMoved);
+    }
+    
+    private void moveFields(Coordinates moveFrom, Coordinates moveTo) {
+        Piece piece = getPieceAt(moveFrom);
+        boolean twoFieldPawnAdvance = piece.getKind() == PAWN && Math.abs(moveTo.getRow() - moveFrom.getRow()) == 2;
+        lastMoveWasTwoFieldPawnAdvanceAtColumn = twoFieldPawnAdvance ? moveTo.getCol() : null;
+        piece.move(moveTo);
+        setField(moveTo, getPieceAt(moveFrom));
+        setField(moveFrom, null);
+        toggleWhoseMove();
+    }
+    
+    private void promoteFields(Coordinates moveFrom, Coordinates moveTo, PieceKind pieceChosen) {
+        setField(moveTo, Piece.produce(getPieceAt(moveFrom).getColor(), pieceChosen));
+        setField(moveFrom, null);
+        lastMoveWasTwoFieldPawnAdvanceAtColumn = null;
+        toggleWhoseMove();
+    }
+    
+    private void castleFields(Coordinates moveFrom, Coordinates moveTo) {
         Coordinates dir = Coordinates.getDir(moveFrom, moveTo);
         Coordinates rookPos = Coordinates.of(dir.getCol() > 0 ? 8 : 1, moveFrom.getRow());
-        try {
-            getPieceAt(moveFrom).move(moveTo);
-            getPieceAt(rookPos).move(moveFrom.plus(dir));
-        } catch (PromotionException | TwoFieldsPawnAdvanceException e) {
-            throw new AssertionError();
-        }
-        setPieceAt(moveTo, getPieceAt(moveFrom));
-        setPieceAt(moveFrom.plus(dir), getPieceAt(rookPos));
-        setPieceAt(moveFrom, null);
-        setPieceAt(rookPos, null);
+        getPieceAt(moveFrom).move(moveTo);
+        getPieceAt(rookPos).move(moveFrom.plus(dir));
+        setField(moveTo, getPieceAt(moveFrom));
+        setField(moveFrom.plus(dir), getPieceAt(rookPos));
+        setField(moveFrom, null);
+        setField(rookPos, null);
         lastMoveWasTwoFieldPawnAdvanceAtColumn = null;
         toggleWhoseMove();
     }
     
-    @Override
-    public void enPassant(Coordinates moveFrom, Coordinates moveTo) {
-        setPieceAt(moveTo, getPieceAt(moveFrom));
-        setPieceAt(moveFrom, null);
-        setPieceAt(Coordinates.of(moveTo.getCol(), moveFrom.getRow()), null);
+    private void enPassantFields(Coordinates moveFrom, Coordinates moveTo) {
+        setField(moveTo, getPieceAt(moveFrom));
+        setField(moveFrom, null);
+        setField(Coordinates.of(moveTo.getCol(), moveFrom.getRow()), null);
         lastMoveWasTwoFieldPawnAdvanceAtColumn = null;
         toggleWhoseMove();
     }
@@ -147,6 +240,15 @@ public class GameStateImpl implements GameState {
     
     @Override
     public void setPieceAt(Coordinates coordinates, Piece piece) {
+        if (piece == null) {
+            getBoard().remove(Board.square(coordinates));
+        } else {
+            getBoard().put(Board.square(coordinates), Board.piece(piece.getColor(), piece.getKind()));
+        }
+        setField(coordinates, piece);
+    }
+    
+    private void setField(Coordinates coordinates, Piece piece) {
         fields[coordinates.getCol()][coordinates.getRow()] = piece;
     }
     
@@ -170,10 +272,18 @@ public class GameStateImpl implements GameState {
     }
     
     @Override
-    public void decrementCurrentPlayerTime() {
+    public void setPlayerTime(Colors playerColor, Time time) {
+        if (playerColor == Colors.WHITE) {
+            whiteTime = new Time(time);
+        } else {
+            blackTime = new Time(time);
+        }
+    }
+    
+    @Override
+    public void subtractCurrentPlayerTime(long elapsedNanos) {
         Time whoseTime = (whoseMove == Colors.WHITE) ? whiteTime : blackTime;
-        whoseTime.decrement();
-        
+        whoseTime.subtract(elapsedNanos);
     }
     
     private void setTimeForPlayers(Time timePerPlayer) {
@@ -187,6 +297,7 @@ public class GameStateImpl implements GameState {
         try {
             GameStateImpl copy = (GameStateImpl) super.clone();
             copy.fields = copyFields();
+            copy.board = board == null ? null : board.clone();
             copy.whiteTime = whiteTime.clone();
             copy.blackTime = blackTime.clone();
             return copy;
@@ -197,15 +308,12 @@ public class GameStateImpl implements GameState {
     
     @Override
     public Coordinates findKing(Colors kingColor) {
-        
-        for (int i = 1; i <= 8; ++i) {
-            for (int j = 1; j <= 8; ++j) {
-                if (fields[i][j] != null && fields[i][j].isKing() && fields[i][j].getColor() == kingColor) {
-                    return Coordinates.of(i, j);
-                }
-            }
-        }
-        throw new AssertionError("Could not find the king");
+        return Board.coordinates(getBoard().kingSquare(kingColor.ordinal()));
+    }
+    
+    @Override
+    public boolean isSquareAttacked(Coordinates coordinates, Colors byColor) {
+        return getBoard().isAttacked(Board.square(coordinates), byColor.ordinal());
     }
     
     @Override
@@ -217,6 +325,96 @@ public class GameStateImpl implements GameState {
         whoseMove = (whoseMove == Colors.WHITE ? Colors.BLACK : Colors.WHITE);
     }
     
+    @Override
+    public int generateLegalMoves(int[] moves) {
+        return MoveGenerator.generateLegalMoves(getBoard(), moves);
+    }
+    
+    @Override
+    public boolean isLegalMove(int move) {
+        return MoveGenerator.isLegal(getBoard(), move);
+    }
+    
+    @Override
+    public long getZobristKey() {
+        return getBoard().getKey();
+    }
+    
+    @Override
+    public int evaluate() {
+        return Evaluation.evaluate(getBoard());
+    }
+    
+    @Override
+    public int evaluate(PawnHashTable pawnHash) {
+        return Evaluation.evaluate(getBoard(), pawnHash);
+    }
+    
+    @Override
+    public void setFen(CharSequence fen) {
+        Board parsed = new Board();
+        Fen.parse(fen, parsed);
+        long unmoved = Fen.unmoved(parsed);
+        for (int col = 1; col <= 8; ++col) {
+            for (int row = 1; row <= 8; ++row) {
+                int sq = Board.square(col, row), piece = parsed.pieceAt(sq);
+                if (piece == Board.EMPTY) {
+                    fields[col][row] = null;
+                } else {
+                    Colors color = Colors.values()[Board.colorOf(piece)];
+                    PieceKind kind = PieceKind.values()[Board.kindOf(piece)];
+                    fields[col][row] = Piece.produce(color, kind, (unmoved & 1L << sq) == 0);
+                }
+            }
+        }
+        whoseMove = Colors.values()[parsed.getSideToMove()];
+        int enPassantColumn = parsed.getEnPassantColumn();
+        lastMoveWasTwoFieldPawnAdvanceAtColumn = enPassantColumn == Board.NO_EN_PASSANT ? null : enPassantColumn + 1;
+        board = parsed;
+    }
+    
+    @Override
+    public String getFen() {
+        return Fen.format(getBoard());
+    }
+    
+    private Board getBoard() {
+        if (board != null) {
+            return board;
+        }
+        Board ret = new Board();
+        for (int i = 1; i <= 8; ++i) {
+            for (int j = 1; j <= 8; ++j) {
+                if (fields[i][j] != null) {
+                    ret.put(Board.square(i, j), Board.piece(fields[i][j].getColor(), fields[i][j].getKind()));
+                }
+            }
+        }
+        ret.setSideToMove(whoseMove.ordinal());
+        Integer enPassantColumn = lastMoveWasTwoFieldPawnAdvanceAtColumn;
+        ret.setEnPassantColumn(enPassantColumn == null ? Board.NO_EN_PASSANT : enPassantColumn - 1);
+        int castlingRights = 0;
+        for (Colors color : Colors.values()) {
+            int row = color == Colors.WHITE ? 1 : 8;
+            if (isUnmoved(5, row, color, KING)) {
+                if (isUnmoved(8, row, color, ROOK)) {
+                    castlingRights |= color == Colors.WHITE ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+                }
+                if (isUnmoved(1, row, color, ROOK)) {
+                    castlingRights |= color == Colors.WHITE ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+                }
+            }
+        }
+        ret.setCastlingRights(castlingRights);
+        board = ret;
+        return ret;
+    }
+    
+    private boolean isUnmoved(int col, int row, Colors color, PieceKind kind) {
+        Piece piece = fields[col][row];
+        return piece != null && piece.getColor() == color && piece.getKind() == kind && !piece.isHasMoved();
+    }
+    
     private Piece[][] copyFields() {
         Piece[][] copy = new Piece[9][9];
         for (int i = 0; i < 9; ++i) {
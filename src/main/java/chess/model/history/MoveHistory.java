@@ -1,20 +1,59 @@
 package chess.model.history;
 
-import chess.domain.Coordinates;
-import chess.domain.PieceKind;
+import chess.domain.Colors;
+import chess.domain.Time;
 import chess.model.gameState.GameState;
 
 import java.io.Serializable;
 import java.util.List;
 
+/**
+ * Moves played in a game. The history is told about every move right after it was applied to the game state with
+ * {@link GameState#makeMove(int)}.
+ */
 public interface MoveHistory extends Serializable {
     
-    void push(GameState gameState, Coordinates moveFrom, Coordinates moveTo, PieceKind promotionChoice);
+    /**
+     * @param gameState position after the move, including the clocks
+     * @param move      the move, packed as described in {@link chess.model.bitboard.Move}
+     * @param undo      undo record returned by {@link GameState#makeMove(int)}
+     */
+    void push(GameState gameState, int move, long undo);
     
-    @SuppressWarnings("UnusedReturnValue")
+    /**
+     * Takes back the last move.
+     *
+     * @return position before the move
+     * @throws java.util.EmptyStackException if no move was made
+     */
     GameState pop();
     
     List<String> getMoveLog();
     
+    /**
+     * @return current position
+     */
     GameState peek();
+    
+    /**
+     * @return copy of the position after the given number of moves, including the clocks
+     * @throws IndexOutOfBoundsException if ply is negative or greater than {@link #size()}
+     */
+    GameState peek(int ply);
+    
+    /**
+     * @return number of moves made
+     */
+    int size();
+    
+    /**
+     * @param ply number of moves made before it, less than {@link #size()}
+     * @return the move, packed as described in {@link chess.model.bitboard.Move}
+     */
+    int getMove(int ply);
+    
+    /**
+     * @return the player's clock after the given number of moves
+     */
+    Time getPlayerTime(int ply, Colors playerColor);
 }
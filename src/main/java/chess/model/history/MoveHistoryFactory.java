@@ -0,0 +1,13 @@
+package chess.model.history;
+
+import chess.model.gameState.GameState;
+
+/**
+ * Creates the history of a new game played on the given game state. The implementation used by the application is
+ * chosen in {@link chess.config.Configuration}.
+ */
+@FunctionalInterface
+public interface MoveHistoryFactory {
+    
+    MoveHistory newMoveHistory(GameState gameState);
+}
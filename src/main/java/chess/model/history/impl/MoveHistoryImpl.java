@@ -1,18 +1,27 @@
 package chess.model.history.impl;
 
-import chess.domain.Coordinates;
-import chess.domain.PieceKind;
+import chess.domain.Colors;
+import chess.domain.Time;
+import chess.model.bitboard.Move;
 import chess.model.gameState.GameState;
 import chess.model.history.MoveHistory;
 import lombok.NonNull;
 
 import java.util.Deque;
 import java.util.EmptyStackException;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * History keeping a clone of the game state after every move. Games saved by older versions hold this class, new games
+ * use {@link UndoMoveHistory}.
+ */
 public class MoveHistoryImpl implements MoveHistory {
     
+    // value computed for the first released version, so games saved by it can still be loaded
+    private static final long serialVersionUID = 3896855557962832926L;
+    
     // holds clones of GameStates
     private final Deque<GameState> gameStateStack = new LinkedList<>();
     private final LinkedList<String> moveLog = new LinkedList<>();
@@ -28,15 +37,14 @@ public class MoveHistoryImpl implements MoveHistory {
             throw new EmptyStackException();
         }
         moveLog.removeLast();
-        return gameStateStack.removeLast().clone();
+        gameStateStack.removeLast();
+        return peek();
     }
     
     @Override
-    public void push(GameState gameState, Coordinates moveFrom, Coordinates moveTo, PieceKind promotionChoice) {
+    public void push(GameState gameState, int move, long undo) {
         gameStateStack.addLast(gameState.clone());
-        
-        String promotion = promotionChoice == null ? "" : promotionChoice.getName();
-        moveLog.addLast(moveFrom + "-" + moveTo + " " + promotion);
+        moveLog.addLast(UndoMoveHistory.logEntry(move));
     }
     
     @Override
@@ -49,4 +57,49 @@ public class MoveHistoryImpl implements MoveHistory {
     public GameState peek() {
         return gameStateStack.peekLast().clone();
     }
+    
+    @Override
+    public GameState peek(int ply) {
+        return getGameState(ply).clone();
+    }
+    
+    @Override
+    public int size() {
+        return gameStateStack.size() - 1;
+    }
+    
+    /**
+     * Moves are only logged as text here, so the packed move is found among the legal moves of the position before it.
+     */
+    @Override
+    public int getMove(int ply) {
+        if (ply < 0 || ply >= size()) {
+            throw new IndexOutOfBoundsException("No move number " + (ply + 1));
+        }
+        String entry = moveLog.get(ply + 1);
+        int[] moves = new int[Move.MAX_MOVES];
+        int count = getGameState(ply).generateLegalMoves(moves);
+        for (int i = 0; i < count; ++i) {
+            if (UndoMoveHistory.logEntry(moves[i]).equals(entry)) {
+                return moves[i];
+            }
+        }
+        throw new IllegalStateException("Logged move " + entry + " is not legal");
+    }
+    
+    @Override
+    public Time getPlayerTime(int ply, Colors playerColor) {
+        return getGameState(ply).getPlayerTime(playerColor);
+    }
+    
+    private GameState getGameState(int ply) {
+        if (ply < 0 || ply > size()) {
+            throw new IndexOutOfBoundsException("No position after " + ply + " moves");
+        }
+        Iterator<GameState> iterator = gameStateStack.iterator();
+        for (int i = 0; i < ply; ++i) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
 }
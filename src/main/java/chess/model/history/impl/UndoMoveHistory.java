@@ -0,0 +1,167 @@
+package chess.model.history.impl;
+
+import chess.domain.Colors;
+import chess.domain.PieceKind;
+import chess.domain.Time;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.history.MoveHistory;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+import java.util.List;
+
+/**
+ * History working on the live game state instead of copies of it. For every move it keeps the packed move, its undo
+ * record and both clocks, so taking a move back unmakes it in place, without cloning anything.
+ * <p>
+ * The game state given to the constructor is the one the game is played on, {@link #peek()} and {@link #pop()}
+ * return it rather than a copy. Older positions are rebuilt by {@link #peek(int)}: a copy of the position is kept every
+ * {@code checkpointInterval} moves, and the position asked for is replayed from the nearest checkpoint or taken back
+ * from the current position, whichever is closer. Longer intervals take less memory and shorter ones seek faster.
+ */
+public class UndoMoveHistory implements MoveHistory {
+    
+    private static final long serialVersionUID = -339229781592162260L;
+    
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 32;
+    
+    private static final int INITIAL_CAPACITY = 64;
+    
+    private final GameState gameState;
+    private final int checkpointInterval;
+    
+    private int size;
+    private int[] moves = new int[INITIAL_CAPACITY];
+    private long[] undos = new long[INITIAL_CAPACITY];
+    // white and black clock in nanoseconds after each move, starting with the clocks before the first one
+    private long[] clocks = new long[2 * (INITIAL_CAPACITY + 1)];
+    // position after every checkpointInterval-th move, starting with the initial one
+    private final List<GameState> checkpoints = new ArrayList<>();
+    
+    public UndoMoveHistory(@NonNull GameState gameState) {
+        this(gameState, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+    
+    /**
+     * @param checkpointInterval number of moves between two copies of the position kept for {@link #peek(int)}
+     */
+    public UndoMoveHistory(@NonNull GameState gameState, int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.gameState = gameState;
+        this.checkpointInterval = checkpointInterval;
+        saveClocks();
+        checkpoints.add(gameState.clone());
+    }
+    
+    @Override
+    public void push(GameState gameState, int move, long undo) {
+        if (gameState != this.gameState) {
+            throw new IllegalArgumentException("The move was made on a different game state");
+        }
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, 2 * size);
+            undos = Arrays.copyOf(undos, 2 * size);
+            clocks = Arrays.copyOf(clocks, 2 * (2 * size + 1));
+        }
+        moves[size] = move;
+        undos[size] = undo;
+        ++size;
+        saveClocks();
+        if (size % checkpointInterval == 0) {
+            checkpoints.add(gameState.clone());
+        }
+    }
+    
+    @Override
+    public GameState pop() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        if (size % checkpointInterval == 0) {
+            checkpoints.remove(checkpoints.size() - 1);
+        }
+        --size;
+        gameState.unmakeMove(moves[size], undos[size]);
+        restoreClocks(gameState, size);
+        return gameState;
+    }
+    
+    @Override
+    public List<String> getMoveLog() {
+        List<String> moveLog = new ArrayList<>(size + 1);
+        moveLog.add("init");
+        for (int i = 0; i < size; ++i) {
+            moveLog.add(logEntry(moves[i]));
+        }
+        return moveLog;
+    }
+    
+    @Override
+    public GameState peek() {
+        return gameState;
+    }
+    
+    @Override
+    public GameState peek(int ply) {
+        if (ply < 0 || ply > size) {
+            throw new IndexOutOfBoundsException("No position after " + ply + " moves");
+        }
+        int checkpoint = ply / checkpointInterval;
+        GameState position;
+        if (ply - checkpoint * checkpointInterval <= size - ply) {
+            position = checkpoints.get(checkpoint).clone();
+            for (int i = checkpoint * checkpointInterval; i < ply; ++i) {
+                position.makeMove(moves[i]);
+            }
+        } else {
+            position = gameState.clone();
+            for (int i = size - 1; i >= ply; --i) {
+                position.unmakeMove(moves[i], undos[i]);
+            }
+        }
+        restoreClocks(position, ply);
+        return position;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public int getMove(int ply) {
+        if (ply < 0 || ply >= size) {
+            throw new IndexOutOfBoundsException("No move number " + (ply + 1));
+        }
+        return moves[ply];
+    }
+    
+    @Override
+    public Time getPlayerTime(int ply, Colors playerColor) {
+        if (ply < 0 || ply > size) {
+            throw new IndexOutOfBoundsException("No position after " + ply + " moves");
+        }
+        return Time.ofNanos(clocks[2 * ply + playerColor.ordinal()]);
+    }
+    
+    private void saveClocks() {
+        clocks[2 * size] = gameState.getPlayerTime(Colors.WHITE).toNanos();
+        clocks[2 * size + 1] = gameState.getPlayerTime(Colors.BLACK).toNanos();
+    }
+    
+    private void restoreClocks(GameState position, int ply) {
+        position.setPlayerTime(Colors.WHITE, getPlayerTime(ply, Colors.WHITE));
+        position.setPlayerTime(Colors.BLACK, getPlayerTime(ply, Colors.BLACK));
+    }
+    
+    static String logEntry(int move) {
+        PieceKind promotionChoice = Move.getPromotionChoice(move);
+        String promotion = promotionChoice == null ? "" : promotionChoice.getName();
+        return Move.getFrom(move) + "-" + Move.getTo(move) + " " + promotion;
+    }
+}
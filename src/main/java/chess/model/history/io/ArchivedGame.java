@@ -0,0 +1,98 @@
+package chess.model.history.io;
+
+import chess.domain.Colors;
+import chess.domain.Coordinates;
+import chess.domain.PieceKind;
+import chess.domain.Time;
+import chess.model.bitboard.Board;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static chess.model.history.io.BinaryGameFormat.HEADER_BYTES;
+
+/**
+ * A game of a {@link GameArchive} as it is stored, read straight from the mapped file: the clocks, the moves and the
+ * clock after each of them, laid out as described in {@link BinaryGameFormat}. Nothing is replayed, so the moves are
+ * not known to be legal; {@link GameArchive#load(int)} replays the game with the same number and validates it.
+ */
+public final class ArchivedGame {
+    
+    private static final int WHITE_TIME = 6, BLACK_TIME = 14, TIME_ADDED = 22;
+    
+    private final int number;
+    private final ByteBuffer game;
+    private final int moveCount;
+    
+    /**
+     * @param game starting at the header, as checked by {@link BinaryGameFormat#checkHeader(ByteBuffer)}
+     */
+    ArchivedGame(int number, ByteBuffer game, int moveCount) {
+        this.number = number;
+        this.game = game;
+        this.moveCount = moveCount;
+    }
+    
+    /**
+     * @return number of the game in the archive, see {@link GameArchive#load(int)}
+     */
+    public int getNumber() {
+        return number;
+    }
+    
+    public int getMoveCount() {
+        return moveCount;
+    }
+    
+    public Time getInitialTime(Colors color) {
+        return Time.ofNanos(game.getLong(color == Colors.WHITE ? WHITE_TIME : BLACK_TIME));
+    }
+    
+    public Time getTimeAddedPerMove() {
+        return Time.ofNanos(game.getLong(TIME_ADDED));
+    }
+    
+    public Coordinates getMoveFrom(int ply) {
+        return Board.coordinates(packedMove(ply) & 63);
+    }
+    
+    public Coordinates getMoveTo(int ply) {
+        return Board.coordinates(packedMove(ply) >>> 6 & 63);
+    }
+    
+    /**
+     * @return the piece chosen for promotion, or null if the move is not a promotion
+     */
+    public PieceKind getPromotionChoice(int ply) {
+        int kind = packedMove(ply) >>> 12 & 7;
+        return kind == 0 ? null : PieceKind.values()[kind];
+    }
+    
+    /**
+     * @return clock of the player who made the move, right after it, to the millisecond
+     */
+    public Time getClockAfter(int ply) {
+        checkPly(ply);
+        long millis = game.getInt(HEADER_BYTES + 2 * moveCount + 4 * ply);
+        return Time.ofNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+    
+    /**
+     * @return clock of the player when the game was saved
+     */
+    public Time getCurrentTime(Colors color) {
+        int trailer = HEADER_BYTES + BinaryGameFormat.MOVE_BYTES * moveCount;
+        return Time.ofNanos(game.getLong(color == Colors.WHITE ? trailer : trailer + 8));
+    }
+    
+    private int packedMove(int ply) {
+        checkPly(ply);
+        return game.getShort(HEADER_BYTES + 2 * ply) & 0xFFFF;
+    }
+    
+    private void checkPly(int ply) {
+        if (ply < 0 || ply >= moveCount) {
+            throw new IndexOutOfBoundsException("No move number " + (ply + 1) + " in a game of " + moveCount);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package chess.model.history.io;
+
+import chess.domain.Colors;
+import chess.domain.Time;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.gameState.GameStateFactory;
+import chess.model.history.MoveHistory;
+import chess.model.history.MoveHistoryFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Versioned binary format of saved games, written and read through NIO channels.
+ * <p>
+ * Numbers are big-endian. A file starts with a header: the magic number {@code CHES}, the format version (short),
+ * both players' initial clocks and the time added per move in nanoseconds (longs) and the number of moves (int).
+ * The moves follow, two bytes each: the square the piece moves from in bits 0-5, the square it moves to in bits 6-11
+ * and the ordinal of the kind chosen for promotion in bits 12-14, 0 if there's none. Then, for every move, the clock of
+ * the player who made it in milliseconds (ints), and finally both players' current clocks in nanoseconds (longs).
+ * <p>
+ * Games are loaded by replaying the moves from the initial position, so every move is validated again. Files saved
+ * by older versions, which serialized the whole {@link chess.model.history.impl.MoveHistoryImpl}, start with the Java
+ * serialization magic number instead and are still read.
+ */
+public final class BinaryGameFormat {
+    
+    public static final int MAGIC = 0x43484553;
+    public static final short VERSION = 1;
+    
+    private static final short SERIALIZATION_MAGIC = (short) 0xACED;
+    static final int HEADER_BYTES = 4 + 2 + 3 * 8 + 4, MOVE_BYTES = 2 + 4, TRAILER_BYTES = 2 * 8;
+    private static final long INITIAL_POSITION_KEY = Board.initial().getKey();
+    
+    private BinaryGameFormat() {
+    }
+    
+    /**
+     * Writes a game that started from the initial position.
+     *
+     * @throws IOException if writing fails, or if the game started from a set-up position, which only PGN can store
+     */
+    public static void write(WritableByteChannel channel, MoveHistory moveHistory, Time timeAddedPerMove)
+    throws IOException {
+        if (!isFromInitialPosition(moveHistory)) {
+            throw new IOException("Games from a set-up position can only be saved as PGN");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(moveHistory.size()));
+        encode(buffer, moveHistory, timeAddedPerMove);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    /**
+     * Reads a game in this format or in the old serialized one.
+     *
+     * @throws IOException if the file is damaged, of an unknown version or contains an illegal move
+     */
+    public static SavedGame read(SeekableByteChannel channel, GameStateFactory gameStateFactory,
+                                 MoveHistoryFactory moveHistoryFactory) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.limit(2);
+        readFully(channel, header);
+        if (header.getShort(0) == SERIALIZATION_MAGIC) {
+            channel.position(0);
+            return readSerialized(channel);
+        }
+        header.limit(HEADER_BYTES);
+        readFully(channel, header);
+        final int moveCount = header.getInt(HEADER_BYTES - 4);
+        if (moveCount < 0) {
+            throw new IOException("Negative move count: " + moveCount);
+        }
+        
+        ByteBuffer game = ByteBuffer.allocate(encodedSize(moveCount));
+        header.flip();
+        game.put(header);
+        readFully(channel, game);
+        game.flip();
+        return decode(game, gameStateFactory, moveHistoryFactory);
+    }
+    
+    static boolean isFromInitialPosition(MoveHistory moveHistory) {
+        return moveHistory.peek(0).getZobristKey() == INITIAL_POSITION_KEY;
+    }
+    
+    /**
+     * @return number of bytes taken by a game of this many moves
+     */
+    static int encodedSize(int moveCount) {
+        return HEADER_BYTES + moveCount * MOVE_BYTES + TRAILER_BYTES;
+    }
+    
+    /**
+     * Puts the game at the buffer's position, which must have {@link #encodedSize(int)} bytes remaining.
+     */
+    static void encode(ByteBuffer buffer, MoveHistory moveHistory, Time timeAddedPerMove) {
+        final int moveCount = moveHistory.size();
+        buffer.putInt(MAGIC).putShort(VERSION);
+        buffer.putLong(moveHistory.getPlayerTime(0, Colors.WHITE).toNanos());
+        buffer.putLong(moveHistory.getPlayerTime(0, Colors.BLACK).toNanos());
+        buffer.putLong(timeAddedPerMove.toNanos());
+        buffer.putInt(moveCount);
+        for (int ply = 0; ply < moveCount; ++ply) {
+            buffer.putShort(pack(moveHistory.getMove(ply)));
+        }
+        for (int ply = 0; ply < moveCount; ++ply) {
+            Colors mover = ply % 2 == 0 ? Colors.WHITE : Colors.BLACK;
+            long nanos = moveHistory.getPlayerTime(ply + 1, mover).toNanos();
+            buffer.putInt((int) TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+        GameState current = moveHistory.peek();
+        buffer.putLong(current.getPlayerTime(Colors.WHITE).toNanos());
+        buffer.putLong(current.getPlayerTime(Colors.BLACK).toNanos());
+    }
+    
+    /**
+     * Checks the header of the game at the buffer's position, whose position is not changed, and that the buffer holds
+     * all of the game. The moves are not looked at.
+     *
+     * @return number of moves of the game
+     * @throws IOException if the game is truncated or of an unknown version
+     */
+    static int checkHeader(ByteBuffer game) throws IOException {
+        final int start = game.position();
+        if (game.remaining() < HEADER_BYTES) {
+            throw new EOFException("Saved game is truncated");
+        }
+        if (game.getInt(start) != MAGIC) {
+            throw new IOException("Not a saved game");
+        }
+        short version = game.getShort(start + 4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported save format version: " + version);
+        }
+        final int moveCount = game.getInt(start + HEADER_BYTES - 4);
+        if (moveCount < 0) {
+            throw new IOException("Negative move count: " + moveCount);
+        }
+        if (game.remaining() < encodedSize(moveCount)) {
+            throw new EOFException("Saved game is truncated");
+        }
+        return moveCount;
+    }
+    
+    /**
+     * Replays the game between the buffer's position and limit. The position is left after the game.
+     *
+     * @throws IOException if the game is damaged, of an unknown version or contains an illegal move
+     */
+    static SavedGame decode(ByteBuffer game, GameStateFactory gameStateFactory,
+                            MoveHistoryFactory moveHistoryFactory) throws IOException {
+        final int moveCount = checkHeader(game);
+        game.position(game.position() + 4 + 2);
+        Time whiteTime = Time.ofNanos(game.getLong());
+        Time blackTime = Time.ofNanos(game.getLong());
+        Time timeAddedPerMove = Time.ofNanos(game.getLong());
+        game.getInt();
+        
+        final int moves = game.position(), stamps = moves + 2 * moveCount, trailer = moves + moveCount * MOVE_BYTES;
+        Time currentWhiteTime = Time.ofNanos(game.getLong(trailer));
+        Time currentBlackTime = Time.ofNanos(game.getLong(trailer + 8));
+        // histories may keep copies of the positions, so the current clocks are set before the last one is pushed
+        GameState gameState = gameStateFactory.newGameState(moveCount == 0 ? currentWhiteTime : whiteTime);
+        gameState.setPlayerTime(Colors.BLACK, moveCount == 0 ? currentBlackTime : blackTime);
+        MoveHistory moveHistory = moveHistoryFactory.newMoveHistory(gameState);
+        int[] legalMoves = new int[Move.MAX_MOVES];
+        for (int ply = 0; ply < moveCount; ++ply) {
+            int move = findLegalMove(gameState, game.getShort(moves + 2 * ply), legalMoves);
+            if (move == Move.NONE) {
+                throw new IOException("Illegal move number " + (ply + 1));
+            }
+            Colors mover = gameState.getWhoseMove();
+            long undo = gameState.makeMove(move);
+            if (ply == moveCount - 1) {
+                gameState.setPlayerTime(Colors.WHITE, currentWhiteTime);
+                gameState.setPlayerTime(Colors.BLACK, currentBlackTime);
+            } else {
+                long millis = game.getInt(stamps + 4 * ply);
+                gameState.setPlayerTime(mover, Time.ofNanos(TimeUnit.MILLISECONDS.toNanos(millis)));
+            }
+            moveHistory.push(gameState, move, undo);
+        }
+        game.position(trailer + TRAILER_BYTES);
+        return new SavedGame(moveHistory, timeAddedPerMove);
+    }
+    
+    private static SavedGame readSerialized(ReadableByteChannel channel) throws IOException {
+        ObjectInputStream objIn = new ObjectInputStream(Channels.newInputStream(channel));
+        try {
+            return new SavedGame((MoveHistory) objIn.readObject(), null);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Not a saved game", e);
+        }
+    }
+    
+    private static short pack(int move) {
+        int promotion = Move.type(move) == Move.PROMOTION ? Move.promotionKind(move) : 0;
+        return (short) (Move.from(move) | Move.to(move) << 6 | promotion << 12);
+    }
+    
+    /**
+     * @return the legal move matching the packed one, {@link Move#NONE} if there's none
+     */
+    private static int findLegalMove(GameState gameState, short packed, int[] legalMoves) {
+        int count = gameState.generateLegalMoves(legalMoves);
+        for (int i = 0; i < count; ++i) {
+            if (pack(legalMoves[i]) == packed) {
+                return legalMoves[i];
+            }
+        }
+        return Move.NONE;
+    }
+    
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Saved game is truncated");
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package chess.model.history.io;
+
+import chess.model.gameState.GameStateFactory;
+import chess.model.history.MoveHistoryFactory;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only view of a file holding many games, written by {@link GameArchiveWriter}.
+ * <p>
+ * The file starts with a header: the magic number {@code CHSA}, the format version (short), the number of games (int)
+ * and the offset of the index (long). The games follow one after another, each stored as in
+ * {@link BinaryGameFormat}, and the index closes the file: the offset of every game and of the end of the last one
+ * (longs). Games are numbered from 0 in the order they were appended.
+ * <p>
+ * The whole file is memory-mapped when the archive is opened, so {@link #load(int)} finds a game through the index
+ * without reading anything else. Iterating over the archive reads the games in file order as they are stored, see
+ * {@link ArchivedGame}, without replaying them, which only {@link #load(int)} does. Files over 2 GB are mapped in
+ * overlapping segments, each game is read from the segment it starts in.
+ */
+public final class GameArchive implements Iterable<ArchivedGame> {
+    
+    public static final int MAGIC = 0x43485341;
+    public static final short VERSION = 1;
+    
+    static final int HEADER_BYTES = 4 + 2 + 4 + 8;
+    static final int SEGMENT_BYTES = 1 << 30;
+    // longest game allowed in an archive, segments overlap by this much so no game is split between two of them
+    static final int MAX_GAME_BYTES = 1 << 20;
+    
+    private final GameStateFactory gameStateFactory;
+    private final MoveHistoryFactory moveHistoryFactory;
+    
+    private final int size;
+    private final MappedByteBuffer index;
+    private final MappedByteBuffer[] segments;
+    
+    private GameArchive(GameStateFactory gameStateFactory, MoveHistoryFactory moveHistoryFactory, int size,
+                        MappedByteBuffer index, MappedByteBuffer[] segments) {
+        this.gameStateFactory = gameStateFactory;
+        this.moveHistoryFactory = moveHistoryFactory;
+        this.size = size;
+        this.index = index;
+        this.segments = segments;
+    }
+    
+    /**
+     * Maps the archive into memory. The file is not kept open.
+     *
+     * @throws IOException if the file is not an archive or is damaged
+     */
+    public static GameArchive open(@NonNull Path path, @NonNull GameStateFactory gameStateFactory,
+                                   @NonNull MoveHistoryFactory moveHistoryFactory) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("Not a game archive");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a game archive");
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported archive version: " + version);
+            }
+            final int size = header.getInt();
+            final long indexOffset = header.getLong();
+            if (size < 0 || indexOffset < HEADER_BYTES || fileSize - indexOffset != (size + 1L) * Long.BYTES) {
+                throw new IOException("Damaged game archive");
+            }
+            
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, fileSize - indexOffset);
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((indexOffset - 1) / SEGMENT_BYTES) + 1];
+            for (int i = 0; i < segments.length; ++i) {
+                long start = (long) i * SEGMENT_BYTES;
+                long length = Math.min(SEGMENT_BYTES + MAX_GAME_BYTES, indexOffset - start);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            return new GameArchive(gameStateFactory, moveHistoryFactory, size, index, segments);
+        }
+    }
+    
+    /**
+     * Checks the magic number, to tell archives from single saved games.
+     */
+    public static boolean isArchive(@NonNull Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) {
+                    return false;
+                }
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+    
+    /**
+     * @return number of games in the archive
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Replays the game with the given number, ready to be passed to
+     * {@link chess.model.logic.GameLogic#loadGame(SavedGame) loadGame}. Safe to call from many threads at once.
+     *
+     * @throws IOException if the game is damaged or contains an illegal move
+     */
+    public SavedGame load(int game) throws IOException {
+        return BinaryGameFormat.decode(slice(game), gameStateFactory, moveHistoryFactory);
+    }
+    
+    /**
+     * Iterates over the games in the order they are stored. Games whose header or length is damaged are reported by
+     * throwing {@link UncheckedIOException} from {@link Iterator#next()}, the moves are not checked.
+     */
+    @Override
+    public Iterator<ArchivedGame> iterator() {
+        return new Iterator<ArchivedGame>() {
+            
+            private int next;
+            
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+            
+            @Override
+            public ArchivedGame next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final int game = next++;
+                try {
+                    ByteBuffer record = slice(game);
+                    return new ArchivedGame(game, record, BinaryGameFormat.checkHeader(record));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+    
+    /**
+     * @return the stored game, from position 0 to its end
+     */
+    private ByteBuffer slice(int game) throws IOException {
+        if (game < 0 || game >= size) {
+            throw new IndexOutOfBoundsException("No game number " + game + " in an archive of " + size);
+        }
+        final long start = index.getLong(game * Long.BYTES), end = index.getLong((game + 1) * Long.BYTES);
+        final long length = end - start;
+        if (start < HEADER_BYTES || length <= 0 || length > MAX_GAME_BYTES
+            || start / SEGMENT_BYTES >= segments.length) {
+            throw new IOException("Damaged index entry of game number " + game);
+        }
+        ByteBuffer segment = segments[(int) (start / SEGMENT_BYTES)].duplicate();
+        int position = (int) (start % SEGMENT_BYTES);
+        if (position + length > segment.capacity()) {
+            throw new IOException("Damaged index entry of game number " + game);
+        }
+        segment.position(position).limit(position + (int) length);
+        return segment.slice();
+    }
+}
@@ -0,0 +1,120 @@
+package chess.model.history.io;
+
+import chess.domain.Time;
+import chess.model.history.MoveHistory;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes a {@link GameArchive}. Games are appended through a buffer and the index, kept in memory until then, is
+ * written on {@link #close()}. The archive can't be read before it's closed.
+ */
+public final class GameArchiveWriter implements Closeable {
+    
+    private static final int BUFFER_BYTES = 1 << 16;
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    
+    private int size;
+    private long[] offsets = new long[1024];
+    private long position = GameArchive.HEADER_BYTES;
+    
+    private GameArchiveWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+    
+    /**
+     * Creates the archive file, replacing the file if it exists.
+     */
+    public static GameArchiveWriter create(@NonNull Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(GameArchive.HEADER_BYTES);
+        return new GameArchiveWriter(channel);
+    }
+    
+    /**
+     * Appends a game that started from the initial position.
+     *
+     * @return number of the game in the archive
+     * @throws IllegalArgumentException if the game is too long to be archived, or started from a set-up position
+     */
+    public int append(@NonNull MoveHistory moveHistory, @NonNull Time timeAddedPerMove) throws IOException {
+        final int length = BinaryGameFormat.encodedSize(moveHistory.size());
+        if (length > GameArchive.MAX_GAME_BYTES) {
+            throw new IllegalArgumentException("Game of " + moveHistory.size() + " moves is too long to archive");
+        }
+        if (!BinaryGameFormat.isFromInitialPosition(moveHistory)) {
+            throw new IllegalArgumentException("Games from a set-up position can't be archived");
+        }
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+        }
+        if (length > buffer.remaining()) {
+            flush();
+        }
+        if (length > buffer.capacity()) {
+            ByteBuffer game = ByteBuffer.allocate(length);
+            BinaryGameFormat.encode(game, moveHistory, timeAddedPerMove);
+            game.flip();
+            writeFully(game);
+        } else {
+            BinaryGameFormat.encode(buffer, moveHistory, timeAddedPerMove);
+        }
+        offsets[size] = position;
+        position += length;
+        return size++;
+    }
+    
+    /**
+     * @return number of games appended so far
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Writes the index and the header and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            offsets[size] = position;
+            for (int i = 0; i <= size; ++i) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush();
+                }
+                buffer.putLong(offsets[i]);
+            }
+            flush();
+            
+            ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_BYTES);
+            header.putInt(GameArchive.MAGIC).putShort(GameArchive.VERSION).putInt(size).putLong(position);
+            header.flip();
+            channel.position(0);
+            writeFully(header);
+        } finally {
+            channel.close();
+        }
+    }
+    
+    private void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+    
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
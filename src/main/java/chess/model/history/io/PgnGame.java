@@ -0,0 +1,17 @@
+package chess.model.history.io;
+
+import chess.model.history.MoveHistory;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Game read from PGN: its tag pairs in the order they were written, its moves and its result.
+ */
+@Value
+public class PgnGame {
+    
+    Map<String, String> tags;
+    MoveHistory moveHistory;
+    String result;
+}
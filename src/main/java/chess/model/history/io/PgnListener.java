@@ -0,0 +1,27 @@
+package chess.model.history.io;
+
+import chess.domain.Coordinates;
+import chess.domain.PieceKind;
+
+/**
+ * Receives games read by {@link PgnReader#readGame(PgnListener)} as they are parsed, without building a history of
+ * them. Moves are only reported once they have been checked to be legal.
+ */
+public interface PgnListener {
+    
+    default void tag(String name, String value) {
+    }
+    
+    /**
+     * @param promotionChoice the piece chosen for promotion, or null if the move is not a promotion
+     */
+    void move(Coordinates moveFrom, Coordinates moveTo, PieceKind promotionChoice);
+    
+    /**
+     * Called after the last move of the game.
+     *
+     * @param result {@code 1-0}, {@code 0-1}, {@code 1/2-1/2} or {@code *}, the last also if the game has no result
+     */
+    default void endGame(String result) {
+    }
+}
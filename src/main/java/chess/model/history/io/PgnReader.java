@@ -0,0 +1,334 @@
+package chess.model.history.io;
+
+import chess.domain.Coordinates;
+import chess.domain.PieceKind;
+import chess.domain.Time;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.gameState.GameStateFactory;
+import chess.model.history.MoveHistory;
+import chess.model.history.MoveHistoryFactory;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads games in Portable Game Notation one at a time, through a buffer of fixed size, so files of any size are read
+ * in a single pass without being held in memory.
+ * <p>
+ * Every move, written in SAN (see {@link San}), is replayed and checked to be legal. Comments, variations, numeric
+ * annotation glyphs and escaped lines are skipped. Games that start from a set-up position are replayed from the
+ * position of their {@code FEN} tag.
+ */
+public final class PgnReader implements Closeable {
+    
+    private static final int BUFFER_CHARS = 1 << 16;
+    private static final int MAX_TOKEN_CHARS = 255;
+    private static final int EOF = -1;
+    
+    private final Reader reader;
+    private final GameStateFactory gameStateFactory;
+    private final MoveHistoryFactory moveHistoryFactory;
+    private final Time gameTime;
+    
+    private final char[] buffer = new char[BUFFER_CHARS];
+    private int position, limit;
+    private int line = 1;
+    
+    private final char[] token = new char[MAX_TOKEN_CHARS];
+    private int tokenLength;
+    private final StringBuilder tagValue = new StringBuilder();
+    private final int[] legalMoves = new int[Move.MAX_MOVES];
+    // history of the game being read by readGame(), created once its position is set up
+    private MoveHistory moveHistory;
+    
+    /**
+     * @param gameTime clock both players start with, PGN doesn't store it
+     */
+    public PgnReader(@NonNull Reader reader, @NonNull GameStateFactory gameStateFactory,
+                     @NonNull MoveHistoryFactory moveHistoryFactory, @NonNull Time gameTime) {
+        this.reader = reader;
+        this.gameStateFactory = gameStateFactory;
+        this.moveHistoryFactory = moveHistoryFactory;
+        this.gameTime = gameTime;
+    }
+    
+    /**
+     * Opens a file encoded in UTF-8, which includes files in plain ASCII.
+     */
+    public static PgnReader open(@NonNull Path path, @NonNull GameStateFactory gameStateFactory,
+                                 @NonNull MoveHistoryFactory moveHistoryFactory, @NonNull Time gameTime)
+    throws IOException {
+        Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8);
+        return new PgnReader(reader, gameStateFactory, moveHistoryFactory, gameTime);
+    }
+    
+    /**
+     * Reads the next game into a new move history.
+     *
+     * @return the game, or null if there are no more games
+     * @throws IOException if reading fails, or if the game is malformed or contains an illegal move; in that case the
+     *                     rest of the game is skipped, so the next call reads the next game
+     */
+    public PgnGame readGame() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        String result = parseGame(true, new PgnListener() {
+            @Override
+            public void tag(String name, String value) {
+                tags.put(name, value);
+            }
+            
+            @Override
+            public void move(Coordinates moveFrom, Coordinates moveTo, PieceKind promotionChoice) {
+            }
+        });
+        return result == null ? null : new PgnGame(tags, moveHistory, result);
+    }
+    
+    /**
+     * Reads the next game, passing its tags and moves to the listener as they are read.
+     *
+     * @return false if there are no more games
+     * @throws IOException if reading fails, or if the game is malformed or contains an illegal move; in that case the
+     *                     rest of the game is skipped, so the next call reads the next game
+     */
+    public boolean readGame(@NonNull PgnListener listener) throws IOException {
+        return parseGame(false, listener) != null;
+    }
+    
+    /**
+     * @return number of the line the reader is in, from 1, as used in error messages
+     */
+    public int getLineNumber() {
+        return line;
+    }
+    
+    /**
+     * Sets the number of the current line, for input that doesn't start at the beginning of a file.
+     */
+    public void setLineNumber(int lineNumber) {
+        line = lineNumber;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    /**
+     * @param keepHistory whether to push the moves into a new {@link #moveHistory}
+     * @return the result of the game, or null if there are no more games
+     */
+    private String parseGame(boolean keepHistory, PgnListener listener) throws IOException {
+        if (skipWhitespace() == EOF) {
+            return null;
+        }
+        final int firstLine = line;
+        GameState gameState = gameStateFactory.newGameState(gameTime);
+        moveHistory = null;
+        String error = null, result = null;
+        boolean inMoveText = false;
+        while (result == null) {
+            int c = skipWhitespace();
+            if (c == EOF || c == '[' && inMoveText) {
+                break; // game without a result, the bracket opens the next one
+            }
+            switch (c) {
+                case '[':
+                    read();
+                    String name = readTag();
+                    if (name.equals("FEN") && error == null) {
+                        try {
+                            gameState.setFen(tagValue);
+                        } catch (IllegalArgumentException e) {
+                            error = e.getMessage();
+                        }
+                    }
+                    listener.tag(name, tagValue.toString());
+                    break;
+                case '{':
+                    skipPast('}');
+                    break;
+                case ';':
+                case '%':
+                    skipPast('\n');
+                    break;
+                case '(':
+                    skipVariation();
+                    break;
+                case ')':
+                case ']':
+                case '}':
+                    read(); // unbalanced
+                    break;
+                default:
+                    inMoveText = true;
+                    if (keepHistory && moveHistory == null) {
+                        moveHistory = moveHistoryFactory.newMoveHistory(gameState);
+                    }
+                    readToken();
+                    if (isResult()) {
+                        result = new String(token, 0, tokenLength);
+                        break;
+                    }
+                    final int san = skipMoveNumber();
+                    if (error != null || san == tokenLength || token[0] == '$') {
+                        break;
+                    }
+                    int move = San.parse(gameState, token, san, tokenLength, legalMoves);
+                    if (move == Move.NONE) {
+                        error = "illegal or malformed move " + new String(token, san, tokenLength - san) + " in line "
+                                + line;
+                        break;
+                    }
+                    long undo = gameState.makeMove(move);
+                    if (moveHistory != null) {
+                        moveHistory.push(gameState, move, undo);
+                    }
+                    listener.move(Move.getFrom(move), Move.getTo(move), Move.getPromotionChoice(move));
+            }
+        }
+        if (result == null) {
+            result = "*";
+        }
+        if (keepHistory && moveHistory == null) {
+            moveHistory = moveHistoryFactory.newMoveHistory(gameState);
+        }
+        listener.endGame(result);
+        if (error != null) {
+            throw new IOException("Game starting in line " + firstLine + ": " + error);
+        }
+        return result;
+    }
+    
+    /**
+     * Reads the tag name and its value, the value is left in {@link #tagValue}.
+     */
+    private String readTag() throws IOException {
+        skipWhitespace();
+        tokenLength = 0;
+        for (int c = peek(); c != EOF && c > ' ' && c != '"' && c != ']'; c = peek()) {
+            appendToToken(read());
+        }
+        String name = new String(token, 0, tokenLength);
+        tagValue.setLength(0);
+        if (skipWhitespace() == '"') {
+            read();
+            for (int c = read(); c != EOF && c != '"'; c = read()) {
+                tagValue.append((char) (c == '\\' ? read() : c));
+            }
+        }
+        skipPast(']');
+        return name;
+    }
+    
+    private void readToken() throws IOException {
+        tokenLength = 0;
+        for (int c = peek(); c > ' ' && "{}()[];".indexOf(c) < 0; c = peek()) {
+            appendToToken(read());
+        }
+    }
+    
+    private void appendToToken(int c) {
+        if (tokenLength < MAX_TOKEN_CHARS) {
+            token[tokenLength++] = (char) c;
+        }
+    }
+    
+    /**
+     * @return index of the first character after the move number at the start of the token, like {@code 12.} or
+     * {@code 12...}, 0 if there's none
+     */
+    private int skipMoveNumber() {
+        int i = 0;
+        while (i < tokenLength && token[i] >= '0' && token[i] <= '9') {
+            ++i;
+        }
+        if (i == tokenLength || token[i] != '.') {
+            return 0;
+        }
+        while (i < tokenLength && token[i] == '.') {
+            ++i;
+        }
+        return i;
+    }
+    
+    private boolean isResult() {
+        return tokenIs("1-0") || tokenIs("0-1") || tokenIs("1/2-1/2") || tokenIs("*");
+    }
+    
+    private boolean tokenIs(String s) {
+        if (tokenLength != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; ++i) {
+            if (token[i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        for (int c = read(); c != EOF; c = read()) {
+            if (c == '(') {
+                ++depth;
+            } else if (c == ')' && --depth == 0) {
+                return;
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == ';') {
+                skipPast('\n');
+            }
+        }
+    }
+    
+    private void skipPast(char end) throws IOException {
+        for (int c = read(); c != EOF && c != end; c = read()) {
+        }
+    }
+    
+    /**
+     * @return the first character that is not whitespace, left unread, or {@link #EOF}
+     */
+    private int skipWhitespace() throws IOException {
+        int c = peek();
+        while (c != EOF && (c <= ' ' || c == '\uFEFF')) {
+            read();
+            c = peek();
+        }
+        return c;
+    }
+    
+    private int read() throws IOException {
+        int c = peek();
+        if (c != EOF) {
+            ++position;
+            if (c == '\n') {
+                ++line;
+            }
+        }
+        return c;
+    }
+    
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position];
+    }
+}
@@ -0,0 +1,154 @@
+package chess.model.history.io;
+
+import chess.domain.Colors;
+import chess.model.bitboard.Fen;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.history.MoveHistory;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Writes games in Portable Game Notation, laid out as the standard's export format: the seven tag roster first, then
+ * the other tags, then the moves in SAN (see {@link San}) with move numbers, in lines shorter than 80 characters.
+ * Games from a set-up position get the {@code SetUp} and {@code FEN} tags.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+    
+    private static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+    private static final int MAX_LINE_CHARS = 79;
+    
+    private final Writer writer;
+    private final StringBuilder moveText = new StringBuilder();
+    private final StringBuilder san = new StringBuilder();
+    private final int[] legalMoves = new int[Move.MAX_MOVES];
+    
+    public PgnWriter(@NonNull Writer writer) {
+        this.writer = writer;
+    }
+    
+    /**
+     * Creates the file, encoded in UTF-8, replacing the file if it exists.
+     */
+    public static PgnWriter create(@NonNull Path path) throws IOException {
+        return new PgnWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+    
+    public void write(MoveHistory moveHistory) throws IOException {
+        write(moveHistory, Collections.emptyMap());
+    }
+    
+    /**
+     * Writes a game. Its first move is numbered 1, as game states don't count moves.
+     *
+     * @param tags tag pairs of the game. Tags of the seven tag roster that are missing are written as unknown, except
+     *             for {@code Result}, which is then taken from the final position: mate, stalemate or {@code *} if the
+     *             game isn't over. {@code SetUp} and {@code FEN} are replaced by the game's own start position
+     */
+    public void write(@NonNull MoveHistory moveHistory, @NonNull Map<String, String> tags) throws IOException {
+        moveText.setLength(0);
+        int lineStart = 0;
+        GameState position = moveHistory.peek(0);
+        final String fen = position.getFen();
+        // counted from white's first move, even if black moved first
+        final int firstPly = position.getWhoseMove() == Colors.WHITE ? 0 : 1;
+        for (int ply = 0; ply < moveHistory.size(); ++ply) {
+            int move = moveHistory.getMove(ply);
+            san.setLength(0);
+            if (ply == 0 || position.getWhoseMove() == Colors.WHITE) {
+                san.append((firstPly + ply) / 2 + 1).append(position.getWhoseMove() == Colors.WHITE ? "." : "...")
+                   .append(' ');
+            }
+            San.append(san, position, move, legalMoves);
+            lineStart = appendWord(san, lineStart);
+            position.makeMove(move);
+        }
+        String result = tags.get("Result");
+        if (result == null) {
+            result = result(position);
+        }
+        appendWord(result, lineStart);
+        
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = name.equals("Result") ? result : tags.get(name);
+            writeTag(name, value != null ? value : name.equals("Date") ? "????.??.??" : "?");
+        }
+        if (!fen.equals(Fen.INITIAL)) {
+            writeTag("SetUp", "1");
+            writeTag("FEN", fen);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isInSevenTagRoster(tag.getKey()) && !tag.getKey().equals("SetUp") && !tag.getKey().equals("FEN")) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        writer.append('\n').append(moveText).append("\n\n");
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+    
+    /**
+     * @return index in {@link #moveText} where the line the word went to starts
+     */
+    private int appendWord(CharSequence word, int lineStart) {
+        if (moveText.length() > lineStart) {
+            if (moveText.length() - lineStart + 1 + word.length() > MAX_LINE_CHARS) {
+                moveText.append('\n');
+                lineStart = moveText.length();
+            } else {
+                moveText.append(' ');
+            }
+        }
+        moveText.append(word);
+        return lineStart;
+    }
+    
+    private String result(GameState position) {
+        if (position.generateLegalMoves(legalMoves) > 0) {
+            return "*";
+        }
+        Colors loser = position.getWhoseMove();
+        if (!position.isSquareAttacked(position.findKing(loser), loser == Colors.WHITE ? Colors.BLACK : Colors.WHITE)) {
+            return "1/2-1/2";
+        }
+        return loser == Colors.WHITE ? "0-1" : "1-0";
+    }
+    
+    private void writeTag(String name, String value) throws IOException {
+        writer.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.append('\\');
+            }
+            writer.append(c);
+        }
+        writer.append("\"]\n");
+    }
+    
+    private static boolean isInSevenTagRoster(String name) {
+        for (String rosterName : SEVEN_TAG_ROSTER) {
+            if (rosterName.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,197 @@
+package chess.model.history.io;
+
+import chess.domain.Colors;
+import chess.domain.PieceKind;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.pieces.Piece;
+
+/**
+ * Standard algebraic notation of moves, as used by PGN: the piece letter (none for pawns), as much of the square the
+ * piece moves from as is needed to tell it from other pieces of its kind, {@code x} for captures, the square it moves
+ * to and {@code =} with the piece chosen for promotion, e.g. {@code Nbd7}, {@code exd5}, {@code e8=Q}, {@code O-O}.
+ * Check and mate are marked with {@code +} and {@code #}.
+ */
+final class San {
+    
+    // indexed by PieceKind ordinal
+    private static final String LETTERS = "PRNBQK";
+    private static final int ANY = -1;
+    
+    private San() {
+    }
+    
+    /**
+     * Finds the legal move written in SAN. Long algebraic notation ({@code e2e4}, {@code e2-e4}) is accepted as well.
+     * Check, mate and annotation marks are ignored.
+     *
+     * @param legalMoves buffer of at least {@link Move#MAX_MOVES} elements
+     * @return the move, or {@link Move#NONE} if the notation is malformed, or if no legal move or more than one matches
+     * it
+     */
+    static int parse(GameState gameState, char[] san, int start, int end, int[] legalMoves) {
+        while (end > start && isMark(san[end - 1])) {
+            --end;
+        }
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+        if (san[start] == 'O' || san[start] == '0') {
+            return parseCastling(gameState, san, start, end, legalMoves);
+        }
+        
+        int kind = PieceKind.PAWN.ordinal();
+        if (LETTERS.indexOf(san[start]) > 0) {
+            kind = LETTERS.indexOf(san[start++]);
+        }
+        int promotion = ANY;
+        if (kind == PieceKind.PAWN.ordinal() && end - start > 2 && LETTERS.indexOf(san[end - 1]) > 0) {
+            promotion = LETTERS.indexOf(san[--end]);
+            if (san[end - 1] == '=') {
+                --end;
+            }
+        }
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+        int toCol = file(san[end - 2]), toRow = rank(san[end - 1]);
+        if (toCol == ANY || toRow == ANY) {
+            return Move.NONE;
+        }
+        int fromCol = ANY, fromRow = ANY;
+        for (int i = start; i < end - 2; ++i) {
+            char c = san[i];
+            if (file(c) != ANY) {
+                fromCol = file(c);
+            } else if (rank(c) != ANY) {
+                fromRow = rank(c);
+            } else if (c != 'x' && c != '-' && c != ':') {
+                return Move.NONE;
+            }
+        }
+        
+        // without a piece letter, a full square to move from may belong to any piece, as in e2e4 or g1f3
+        final boolean anyKind = kind == PieceKind.PAWN.ordinal() && fromCol != ANY && fromRow != ANY;
+        final int to = Board.square(toCol, toRow);
+        int found = Move.NONE;
+        int count = gameState.generateLegalMoves(legalMoves);
+        for (int i = 0; i < count; ++i) {
+            int move = legalMoves[i];
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.type(move) == Move.CASTLING
+                || fromCol != ANY && (from & 7) + 1 != fromCol || fromRow != ANY && (from >>> 3) + 1 != fromRow) {
+                continue;
+            }
+            boolean isPromotion = Move.type(move) == Move.PROMOTION;
+            if (isPromotion != (promotion != ANY) || isPromotion && Move.promotionKind(move) != promotion) {
+                continue;
+            }
+            if (!anyKind && gameState.getPieceAt(Board.coordinates(from)).getKind().ordinal() != kind) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                return Move.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+    
+    private static int parseCastling(GameState gameState, char[] san, int start, int end, int[] legalMoves) {
+        final int length = end - start;
+        if (length != 3 && length != 5) {
+            return Move.NONE;
+        }
+        for (int i = start; i < end; ++i) {
+            if (san[i] != ((i - start) % 2 == 0 ? san[start] : '-')) {
+                return Move.NONE;
+            }
+        }
+        final int toCol = length == 3 ? 7 : 3;
+        int count = gameState.generateLegalMoves(legalMoves);
+        for (int i = 0; i < count; ++i) {
+            int move = legalMoves[i];
+            if (Move.type(move) == Move.CASTLING && (Move.to(move) & 7) + 1 == toCol) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+    
+    /**
+     * Appends the legal move in SAN, with check and mate marks. The game state is left as it was.
+     *
+     * @param legalMoves buffer of at least {@link Move#MAX_MOVES} elements
+     */
+    static void append(StringBuilder sb, GameState gameState, int move, int[] legalMoves) {
+        final int from = Move.from(move), to = Move.to(move);
+        if (Move.type(move) == Move.CASTLING) {
+            sb.append((to & 7) == 6 ? "O-O" : "O-O-O");
+        } else {
+            final PieceKind kind = gameState.getPieceAt(Board.coordinates(from)).getKind();
+            final boolean capture = Move.type(move) == Move.EN_PASSANT
+                                    || gameState.getPieceAt(Board.coordinates(to)) != null;
+            if (kind == PieceKind.PAWN) {
+                if (capture) {
+                    sb.append((char) ('a' + (from & 7)));
+                }
+            } else {
+                sb.append(LETTERS.charAt(kind.ordinal()));
+                appendDisambiguation(sb, gameState, move, kind, legalMoves);
+            }
+            if (capture) {
+                sb.append('x');
+            }
+            sb.append(Board.coordinates(to));
+            if (Move.type(move) == Move.PROMOTION) {
+                sb.append('=').append(LETTERS.charAt(Move.promotionKind(move)));
+            }
+        }
+        
+        Colors mover = gameState.getWhoseMove();
+        long undo = gameState.makeMove(move);
+        if (gameState.isSquareAttacked(gameState.findKing(gameState.getWhoseMove()), mover)) {
+            sb.append(gameState.generateLegalMoves(legalMoves) == 0 ? '#' : '+');
+        }
+        gameState.unmakeMove(move, undo);
+    }
+    
+    private static void appendDisambiguation(StringBuilder sb, GameState gameState, int move, PieceKind kind,
+                                             int[] legalMoves) {
+        final int from = Move.from(move), to = Move.to(move);
+        boolean ambiguous = false, sameCol = false, sameRow = false;
+        int count = gameState.generateLegalMoves(legalMoves);
+        for (int i = 0; i < count; ++i) {
+            int other = Move.from(legalMoves[i]);
+            if (Move.to(legalMoves[i]) != to || other == from) {
+                continue;
+            }
+            Piece piece = gameState.getPieceAt(Board.coordinates(other));
+            if (piece.getKind() == kind) {
+                ambiguous = true;
+                sameCol |= (other & 7) == (from & 7);
+                sameRow |= other >>> 3 == from >>> 3;
+            }
+        }
+        if (ambiguous && !sameCol) {
+            sb.append((char) ('a' + (from & 7)));
+        } else if (ambiguous && !sameRow) {
+            sb.append((char) ('1' + (from >>> 3)));
+        } else if (ambiguous) {
+            sb.append(Board.coordinates(from));
+        }
+    }
+    
+    private static boolean isMark(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+    
+    private static int file(char c) {
+        return c >= 'a' && c <= 'h' ? c - 'a' + 1 : ANY;
+    }
+    
+    private static int rank(char c) {
+        return c >= '1' && c <= '8' ? c - '0' : ANY;
+    }
+}
@@ -0,0 +1,13 @@
+package chess.model.history.io;
+
+import chess.domain.Time;
+import chess.model.history.MoveHistory;
+import lombok.Value;
+
+@Value
+public class SavedGame {
+    
+    MoveHistory moveHistory;
+    // null for games saved in the old format, which didn't store it
+    Time timeAddedPerMove;
+}
@@ -0,0 +1,43 @@
+package chess.model.logic;
+
+import chess.domain.Colors;
+import chess.domain.Coordinates;
+import chess.domain.Time;
+
+/**
+ * Receives changes of a game registered with {@link GameLogic#addListener(GameListener)}. Squares are given as
+ * bitboards, bit {@link chess.model.bitboard.Board#square(Coordinates)} set for each square whose piece changed.
+ * <p>
+ * Methods are called on the thread that changed the game, which is the clock thread for clocks and flag falls, while
+ * the game is locked. They must not block, the game is read from there but not changed.
+ */
+public interface GameListener {
+    
+    default void moveApplied(int move, long changedSquares) {
+    }
+    
+    /**
+     * Called when the position changes other than by a move: a new game is started, one is loaded or ended, or a move
+     * is reverted.
+     */
+    default void positionChanged(long changedSquares) {
+    }
+    
+    /**
+     * Called when the clock of the player shows another whole second, see {@link Time#toSeconds()}.
+     */
+    default void clockChanged(Colors color, Time time) {
+    }
+    
+    /**
+     * Called when a move awaits the choice of the piece to promote to, see {@link GameLogic#promote}.
+     */
+    default void promotionPending(Coordinates moveFrom, Coordinates moveTo) {
+    }
+    
+    /**
+     * @param lostOnTime the player whose flag fell, null if the game was ended by {@link GameLogic#endGame()}
+     */
+    default void gameEnded(Colors lostOnTime) {
+    }
+}
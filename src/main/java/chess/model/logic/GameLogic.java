@@ -2,6 +2,7 @@ package chess.model.logic;
 
 import chess.domain.Colors;
 import chess.domain.Coordinates;
+import chess.domain.MoveOutcome;
 import chess.domain.PieceKind;
 import chess.domain.Time;
 import chess.domain.exceptions.CastlingException;
@@ -9,12 +10,27 @@ import chess.domain.exceptions.EnPassantException;
 import chess.domain.exceptions.PromotionException;
 import chess.domain.exceptions.SpecialMoveException;
 import chess.model.history.MoveHistory;
+import chess.model.history.io.SavedGame;
 import chess.model.pieces.Piece;
 
 public interface GameLogic {
     
+    /**
+     * Registers the listener and brings it up to date: all squares are reported to it as changed, as are both
+     * clocks. The listeners registered before are not told anything.
+     */
+    void addListener(GameListener listener);
+    
+    void removeListener(GameListener listener);
+    
     Time getPlayerTime(Colors playerColor);
     
+    /**
+     * @return the player whose time ran out, null if neither's did. The game is paused when the flag falls and no
+     * more moves are legal, until a new game is started, loaded or a move is reverted.
+     */
+    Colors getLostOnTime();
+    
     boolean isNotPaused();
     
     void setPaused(boolean paused);
@@ -28,6 +44,9 @@ public interface GameLogic {
     Colors getWhoseMove();
     
     /**
+     * Completes the pending promotion, unless the flag of the player fell while the piece was being chosen, then the
+     * move is not made.
+     *
      * @throws IllegalStateException, if the service is not awaiting promotion choice
      *                                (see {@link #tryToMove(Coordinates, Coordinates) tryToMove}
      */
@@ -37,21 +56,65 @@ public interface GameLogic {
     
     void loadGame(MoveHistory moveHistory);
     
+    /**
+     * Continues a saved game, with the time added per move it was saved with, if it was saved with one.
+     */
+    void loadGame(SavedGame savedGame);
+    
+    Time getTimeAddedPerMove();
+    
     MoveHistory getMoveHistory();
     
     void revertMove();
     
+    /**
+     * Writes all legal moves of the side to move into the buffer, packed as described in
+     * {@link chess.model.bitboard.Move}. Game state is not changed.
+     *
+     * @param moves buffer of at least {@link chess.model.bitboard.Move#MAX_MOVES} elements
+     * @return number of moves written
+     * @throws IllegalStateException, if the service is awaiting promotion choice
+     */
+    int generateLegalMoves(int[] moves);
+    
+    /**
+     * Checks if this move is correct. If not, or if a player has lost on time, returns {@link MoveOutcome#ILLEGAL} and
+     * leaves the game state unchanged. If the move involves promotion, game state remains unchanged and
+     * {@link MoveOutcome#PROMOTION_PENDING} is returned. In this case {@link #promote(PieceKind) promote} function
+     * should be called before next move. Otherwise the move is performed and its kind is returned.
+     *
+     * @throws IllegalStateException, if the service is awaiting promotion choice
+     */
+    MoveOutcome attemptMove(Coordinates moveFrom, Coordinates moveTo);
+    
     /**
      * Checks if this move is correct. If not, returns false and leaves the game state unchanged. If the move
      * is castling or en passant, the move is performed and a corresponding exception is thrown. If the move involves
      * promotion, game state remains unchanged and PromotionException is thrown. In this case
      * {@link #promote(PieceKind) promote} function should be called before next tryToMove.
      * If the move is allowed and is not special, game state is changed and the method returns true.
+     * <p>
+     * Exception-based adapter over {@link #attemptMove(Coordinates, Coordinates) attemptMove}.
      *
      * @throws PromotionException,    if the move requires promotion
      * @throws CastlingException,     if the move involves castling
      * @throws EnPassantException,    if the move involves en passant capture
      * @throws IllegalStateException, if the service is awaiting promotion choice
      */
-    boolean tryToMove(Coordinates moveFrom, Coordinates moveTo) throws SpecialMoveException;
+    default boolean tryToMove(Coordinates moveFrom, Coordinates moveTo) throws SpecialMoveException {
+        switch (attemptMove(moveFrom, moveTo)) {
+            case NORMAL:
+                return true;
+            case ILLEGAL:
+                return false;
+            case CASTLING:
+                throw new CastlingException();
+            case EN_PASSANT:
+                throw new EnPassantException();
+            case PROMOTION_PENDING:
+                throw new PromotionException();
+            default:
+                throw new AssertionError();
+        }
+    }
 }
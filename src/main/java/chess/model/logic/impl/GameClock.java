@@ -0,0 +1,54 @@
+package chess.model.logic.impl;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the clocks of many games on one thread. It doesn't count them down, a game works out the time spent from
+ * {@link System#nanoTime()} whenever a move is made or a clock is read. The thread only wakes when the time of the side
+ * to move in some game runs out, so games cost nothing between their moves. It starts with the first game that runs.
+ */
+@Service
+public class GameClock {
+    
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "game clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public GameClock() {
+        // games reschedule their flag fall on every move, the cancelled ones must not pile up
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+    
+    /**
+     * @return clock shared by the games created without one, created on first use
+     */
+    static GameClock getDefault() {
+        return DefaultClock.INSTANCE;
+    }
+    
+    /**
+     * @param flagFall run on the clock thread once the delay passes, unless cancelled before
+     */
+    ScheduledFuture<?> schedule(Runnable flagFall, long delayNanos) {
+        return scheduler.schedule(flagFall, delayNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * @return number of games whose clocks run
+     */
+    public int getRunningGames() {
+        return scheduler.getQueue().size();
+    }
+    
+    // loaded, and so the clock created, by the first call of getDefault()
+    private static final class DefaultClock {
+        
+        static final GameClock INSTANCE = new GameClock();
+    }
+}
@@ -2,57 +2,136 @@ package chess.model.logic.impl;
 
 import chess.domain.Colors;
 import chess.domain.Coordinates;
+import chess.domain.MoveOutcome;
 import chess.domain.PieceKind;
 import chess.domain.Time;
-import chess.domain.exceptions.CastlingException;
-import chess.domain.exceptions.EnPassantException;
-import chess.domain.exceptions.PromotionException;
-import chess.domain.exceptions.SpecialMoveException;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Move;
 import chess.model.gameState.GameState;
-import chess.model.gameState.impl.GameStateImpl;
+import chess.model.gameState.GameStateFactory;
 import chess.model.history.MoveHistory;
-import chess.model.history.impl.MoveHistoryImpl;
+import chess.model.history.MoveHistoryFactory;
+import chess.model.history.io.SavedGame;
+import chess.model.logic.GameListener;
 import chess.model.logic.GameLogic;
 import chess.model.pieces.Piece;
 import lombok.Value;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
 
 import java.util.EmptyStackException;
 import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-@Service
+/**
+ * Rules and clocks of one game. Games are created on demand by {@link chess.model.session.GameSessions}.
+ * <p>
+ * The clock of the side to move is charged the time passed since it was last settled, taken from
+ * {@link System#nanoTime()}, when a move is made or a clock is read. The flag falls at the moment the time runs out,
+ * the {@link GameClock} shared by the games wakes up then and pauses the game.
+ * <p>
+ * While there are {@link GameListener listeners}, the clock also wakes up whenever the clock of the side to move
+ * shows another second, and the position is compared with the one they were last told about after every change, so
+ * only the squares that changed are reported.
+ */
 public class GameLogicImpl implements GameLogic {
     
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long ALL_SQUARES = -1L;
+    
+    private final GameStateFactory gameStateFactory;
+    private final MoveHistoryFactory moveHistoryFactory;
+    
     private MoveHistory moveHistory;
     private GameState gameState;
     
     private Time timeToAddAfterMove;
-    private final TimeCounter timeCounter = new TimeCounter();
+    private final GameClock clock;
+    // whether the clock of the side to move runs, since the System.nanoTime() it was last settled at
+    private boolean clockRunning;
+    private long settledAt;
+    // null while the clock is stopped
+    private ScheduledFuture<?> deadline;
+    // tells the deadline scheduled last from those that lost the race with a move
+    private long deadlineNumber;
+    private Colors lostOnTime;
+    
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+    // as the listeners were last told, pieces packed as in Board for each square, seconds for each color
+    private final int[] shownPieces = new int[64];
+    private final long[] shownSeconds = new long[2];
     
     private PromotionMoveData promotionMoveData;
     
-    @Autowired
-    public GameLogicImpl(Time defaultGameTime, Time defaultTimeAddedPerMove) {
+    /**
+     * Creates a game for use outside {@link chess.model.session.GameSessions}. All such games share one clock, so
+     * creating many of them doesn't start a thread for each.
+     */
+    public GameLogicImpl(Time defaultGameTime, Time defaultTimeAddedPerMove, GameStateFactory gameStateFactory,
+                         MoveHistoryFactory moveHistoryFactory) {
+        this(defaultGameTime, defaultTimeAddedPerMove, gameStateFactory, moveHistoryFactory, GameClock.getDefault());
+    }
+    
+    public GameLogicImpl(Time defaultGameTime, Time defaultTimeAddedPerMove, GameStateFactory gameStateFactory,
+                         MoveHistoryFactory moveHistoryFactory, GameClock clock) {
+        this.gameStateFactory = gameStateFactory;
+        this.moveHistoryFactory = moveHistoryFactory;
+        this.clock = clock;
         newGame(defaultGameTime, defaultTimeAddedPerMove);
-        timeCounter.start();
     }
     
     @Override
-    public void newGame(Time gameTime, Time timeAddedPerMove) {
-        gameState = new GameStateImpl(new Time(gameTime));
+    public synchronized void newGame(Time gameTime, Time timeAddedPerMove) {
+        stopClock();
+        gameState = gameStateFactory.newGameState(new Time(gameTime));
         this.timeToAddAfterMove = new Time(timeAddedPerMove);
-        moveHistory = new MoveHistoryImpl(gameState);
+        moveHistory = moveHistoryFactory.newMoveHistory(gameState);
+        lostOnTime = null;
+        startClock();
+        publishPosition();
     }
     
     @Override
-    public void promote(PieceKind pieceChosen) {
+    public synchronized void promote(PieceKind pieceChosen) {
+        // the flag may have fallen while the player was choosing
+        settle(System.nanoTime());
+        if (lostOnTime != null) {
+            return;
+        }
         if (promotionMoveData == null) {
             throw new IllegalStateException("Service is not awaiting promotion choice");
         }
-        gameState.promote(promotionMoveData.moveFrom, promotionMoveData.moveTo, pieceChosen);
-        actionToPerformAfterMove(promotionMoveData.moveFrom, promotionMoveData.moveTo, pieceChosen);
+        int from = Board.square(promotionMoveData.moveFrom), to = Board.square(promotionMoveData.moveTo);
+        makeMove(Move.promotion(from, to, pieceChosen.ordinal()));
+    }
+    
+    @Override
+    public synchronized void addListener(GameListener listener) {
+        settle(System.nanoTime());
+        boolean first = listeners.isEmpty();
+        if (first) {
+            // nothing was compared while nobody listened, start from the current game
+            changedSquares();
+            for (Colors color : Colors.values()) {
+                shownSeconds[color.ordinal()] = gameState.getPlayerTime(color).toSeconds();
+            }
+        }
+        // the others are up to date already, only the new listener is told the whole game
+        listener.positionChanged(ALL_SQUARES);
+        for (Colors color : Colors.values()) {
+            listener.clockChanged(color, gameState.getPlayerTime(color));
+        }
+        listeners.add(listener);
+        if (first && clockRunning) {
+            // to wake up at every second from now on
+            stopClock();
+            startClock();
+        }
+    }
+    
+    @Override
+    public synchronized void removeListener(GameListener listener) {
+        listeners.remove(listener);
     }
     
     @Override
@@ -61,30 +140,58 @@ public class GameLogicImpl implements GameLogic {
     }
     
     @Override
-    public void startOrResume() {
+    public synchronized void startOrResume() {
+        stopClock();
         gameState.startOrResume();
-        
-        synchronized (timeCounter) {
-            timeCounter.notifyAll();
-        }
+        startClock();
+        publishClocks();
     }
     
     @Override
-    public void endGame() {
+    public synchronized void endGame() {
+        stopClock();
         gameState.endGame();
         promotionMoveData = null;
+        publishPosition();
+        for (GameListener listener : listeners) {
+            listener.gameEnded(null);
+        }
     }
     
     @Override
-    public Time getPlayerTime(Colors color) {
+    public synchronized Time getPlayerTime(Colors color) {
+        settle(System.nanoTime());
         return gameState.getPlayerTime(color);
     }
     
     @Override
-    public void loadGame(MoveHistory moveHistory) {
+    public synchronized Colors getLostOnTime() {
+        settle(System.nanoTime());
+        return lostOnTime;
+    }
+    
+    @Override
+    public synchronized void loadGame(MoveHistory moveHistory) {
+        stopClock();
         this.moveHistory = moveHistory;
         gameState = moveHistory.peek();
         promotionMoveData = null;
+        lostOnTime = null;
+        startClock();
+        publishPosition();
+    }
+    
+    @Override
+    public synchronized void loadGame(SavedGame savedGame) {
+        loadGame(savedGame.getMoveHistory());
+        if (savedGame.getTimeAddedPerMove() != null) {
+            timeToAddAfterMove = new Time(savedGame.getTimeAddedPerMove());
+        }
+    }
+    
+    @Override
+    public Time getTimeAddedPerMove() {
+        return new Time(timeToAddAfterMove);
     }
     
     @Override
@@ -93,37 +200,54 @@ public class GameLogicImpl implements GameLogic {
     }
     
     @Override
-    public boolean tryToMove(Coordinates moveFrom, Coordinates moveTo) throws SpecialMoveException {
+    public synchronized MoveOutcome attemptMove(Coordinates moveFrom, Coordinates moveTo) {
         if (promotionMoveData != null) {
             throw new IllegalStateException("Service is awaiting promotion choice");
         }
-        try {
-            if (isThisValidMove(moveFrom, moveTo)) {
-                move(moveFrom, moveTo);
-                return true;
-            } else {
-                return false;
-            }
-        } catch (CastlingException e) {
-            castle(moveFrom, moveTo);
-            throw e;
-        } catch (EnPassantException e) {
-            enPassant(moveFrom, moveTo);
-            throw e;
-        } catch (PromotionException e) {
-            promotionMoveData = new PromotionMoveData(moveFrom, moveTo);
-            throw e;
+        settle(System.nanoTime());
+        if (lostOnTime != null) {
+            return MoveOutcome.ILLEGAL;
         }
+        MoveOutcome outcome = validateMove(moveFrom, moveTo);
+        switch (outcome) {
+            case NORMAL:
+            case CASTLING:
+            case EN_PASSANT:
+                makeMove(toMove(moveFrom, moveTo, outcome));
+                break;
+            case PROMOTION_PENDING:
+                promotionMoveData = new PromotionMoveData(moveFrom, moveTo);
+                for (GameListener listener : listeners) {
+                    listener.promotionPending(moveFrom, moveTo);
+                }
+                break;
+            case ILLEGAL:
+                break;
+        }
+        return outcome;
     }
     
     @Override
-    public void revertMove() {
+    public synchronized void revertMove() {
+        stopClock();
         try {
-            moveHistory.pop();
-            gameState = moveHistory.peek();
+            gameState = moveHistory.pop();
+            promotionMoveData = null;
+            lostOnTime = null;
         } catch (EmptyStackException e) {
             throw new IllegalStateException("This is the initial game state", e);
+        } finally {
+            startClock();
         }
+        publishPosition();
+    }
+    
+    @Override
+    public int generateLegalMoves(int[] moves) {
+        if (promotionMoveData != null) {
+            throw new IllegalStateException("Service is awaiting promotion choice");
+        }
+        return gameState.generateLegalMoves(moves);
     }
     
     @Override
@@ -132,8 +256,11 @@ public class GameLogicImpl implements GameLogic {
     }
     
     @Override
-    public void setPaused(boolean paused) {
+    public synchronized void setPaused(boolean paused) {
+        stopClock();
         gameState.setPaused(paused);
+        startClock();
+        publishClocks();
     }
     
     @Override
@@ -142,228 +269,209 @@ public class GameLogicImpl implements GameLogic {
     }
     
     
-    @SuppressWarnings({"SimplifiableIfStatement", "RedundantIfStatement"})
-    private boolean isThisValidMove(Coordinates moveFrom, Coordinates moveTo) throws SpecialMoveException {
-        try {
-            // check if user wants to move an existing piece owned by him
-            if (getPieceAt(moveFrom) == null || getPieceAt(moveFrom).getColor() != gameState.getWhoseMove()) {
-                return false;
-            }
-            
-            // check if user tries to capture his own piece
-            if (getPieceAt(moveTo) != null && getPieceAt(moveTo).getColor() == gameState.getWhoseMove()) {
-                return false;
-            }
-            
-            if (!isThisValidMoveForgetCheckAndTurn(moveFrom, moveTo)) {
-                return false;
-            }
-            
-            if (checkIfKingWillBeCheckedAfterMove(moveFrom, moveTo)) {
-                return false;
-            }
-            
-            return true;
-            
-        } catch (EnPassantException e) {
-            if (authorizeEnPassant(moveFrom, moveTo)) {
-                throw e;
-            } else {
-                return false;
-            }
-        } catch (CastlingException e) {
-            if (authorizeCastling(moveFrom, moveTo)) {
-                throw e;
-            } else {
-                return false;
-            }
-        } catch (PromotionException e) {
-            return !checkIfKingWillBeCheckedAfterMove(moveFrom, moveTo);
+    private MoveOutcome validateMove(Coordinates moveFrom, Coordinates moveTo) {
+        // check if user wants to move an existing piece owned by him
+        if (getPieceAt(moveFrom) == null || getPieceAt(moveFrom).getColor() != gameState.getWhoseMove()) {
+            return MoveOutcome.ILLEGAL;
         }
+        
+        // check if user tries to capture his own piece
+        if (getPieceAt(moveTo) != null && getPieceAt(moveTo).getColor() == gameState.getWhoseMove()) {
+            return MoveOutcome.ILLEGAL;
+        }
+        
+        MoveOutcome outcome = checkMoveForgetCheckAndTurn(moveFrom, moveTo);
+        if (outcome == MoveOutcome.ILLEGAL) {
+            return outcome;
+        }
+        return gameState.isLegalMove(toMove(moveFrom, moveTo, outcome)) ? outcome : MoveOutcome.ILLEGAL;
     }
     
-    private void move(Coordinates moveFrom, Coordinates moveTo) throws PromotionException {
-        gameState.move(moveFrom, moveTo);
-        actionToPerformAfterMove(moveFrom, moveTo);
-    }
-    
-    private void castle(Coordinates moveFrom, Coordinates moveTo) {
-        gameState.castle(moveFrom, moveTo);
-        actionToPerformAfterMove(moveFrom, moveTo);
-    }
-    
-    private void enPassant(Coordinates moveFrom, Coordinates moveTo) {
-        gameState.enPassant(moveFrom, moveTo);
-        actionToPerformAfterMove(moveFrom, moveTo);
+    /**
+     * @return the move packed as described in {@link Move}; a pending promotion is packed as a queen promotion,
+     * which is enough to check its legality
+     */
+    private static int toMove(Coordinates moveFrom, Coordinates moveTo, MoveOutcome outcome) {
+        int from = Board.square(moveFrom), to = Board.square(moveTo);
+        switch (outcome) {
+            case CASTLING:
+                return Move.of(from, to, Move.CASTLING);
+            case EN_PASSANT:
+                return Move.of(from, to, Move.EN_PASSANT);
+            case PROMOTION_PENDING:
+                return Move.promotion(from, to, Board.QUEEN);
+            default:
+                return Move.of(from, to);
+        }
     }
     
-    private void actionToPerformAfterMove(Coordinates moveFrom, Coordinates moveTo) {
-        actionToPerformAfterMove(moveFrom, moveTo, null);
+    private void makeMove(int move) {
+        stopClock();
+        long undo = gameState.makeMove(move);
+        actionToPerformAfterMove(move, undo);
+        startClock();
+        if (!listeners.isEmpty()) {
+            long changed = changedSquares();
+            for (GameListener listener : listeners) {
+                listener.moveApplied(move, changed);
+            }
+        }
+        publishClocks();
     }
     
-    private void actionToPerformAfterMove(Coordinates moveFrom, Coordinates moveTo, PieceKind promotionChoice) {
+    private void actionToPerformAfterMove(int move, long undo) {
         gameState.addPlayerTime(timeToAddAfterMove);
-        moveHistory.push(gameState, moveFrom, moveTo, promotionChoice);
+        moveHistory.push(gameState, move, undo);
         promotionMoveData = null;
-        synchronized (timeCounter) {
-            timeCounter.notifyAll();
-        }
     }
     
-    private boolean checkIfKingWillBeCheckedAfterMove(Coordinates moveFrom, Coordinates moveTo) {
-        
-        // save current state
-        Piece one = getPieceAt(moveFrom);
-        Piece two = getPieceAt(moveTo);
-        
-        try {
-            // perform a virtual move
-            setPieceAt(moveTo, one);
-            setPieceAt(moveFrom, null);
-            if (checkIfKingIsChecked(gameState.getWhoseMove())) {
-                return true;
+    /**
+     * Charges the time passed since the last settlement to the side to move. If it runs out, the clock stops at zero,
+     * the game is paused, the side to move has lost on time and a pending promotion is dropped.
+     */
+    private void settle(long now) {
+        if (!clockRunning) {
+            return;
+        }
+        gameState.subtractCurrentPlayerTime(now - settledAt);
+        settledAt = now;
+        Colors whoseMove = gameState.getWhoseMove();
+        long remaining = gameState.getPlayerTime(whoseMove).toNanos();
+        if (remaining <= 0) {
+            gameState.subtractCurrentPlayerTime(remaining);
+            gameState.setPaused(true);
+            lostOnTime = whoseMove;
+            promotionMoveData = null;
+            clockRunning = false;
+            cancelDeadline();
+            publishClocks();
+            for (GameListener listener : listeners) {
+                listener.gameEnded(whoseMove);
             }
-        } finally {
-            //undo virtual move
-            setPieceAt(moveFrom, one);
-            setPieceAt(moveTo, two);
         }
-        
-        return false;
     }
     
-    private boolean isThisValidMoveForgetCheckAndTurn(Coordinates moveFrom, Coordinates moveTo)
-    throws SpecialMoveException {
-        if (getPieceAt(moveFrom) == null) {
-            return false;
-        }
-        if (getPieceAt(moveTo) != null && getPieceAt(moveTo).getColor() == getPieceAt(moveFrom).getColor()) {
-            return false;
-        }
-        List<Coordinates> path = getPieceAt(moveFrom).getPath(moveFrom, moveTo, getPieceAt(moveTo) != null);
-        if (path == null) {
-            return false;
+    /**
+     * Settles the clock of the side to move and stops it. Has to be followed by {@link #startClock()} once the game
+     * state has changed.
+     */
+    private void stopClock() {
+        long now = System.nanoTime();
+        settle(now);
+        cancelDeadline();
+        clockRunning = false;
+        settledAt = now;
+    }
+    
+    private void cancelDeadline() {
+        if (deadline != null) {
+            deadline.cancel(false);
+            deadline = null;
         }
-        for (Coordinates c : path) {
-            if (getPieceAt(c) != null) {
-                return false;
-            }
+    }
+    
+    /**
+     * Starts the clock of the side to move, unless the game is paused, from the moment it was stopped.
+     */
+    private void startClock() {
+        if (gameState.isPaused()) {
+            return;
         }
-        return true;
+        clockRunning = true;
+        scheduleDeadline();
     }
     
-    private boolean checkIfKingIsChecked(Colors kingColor) {
-        Coordinates kingPos = gameState.findKing(kingColor);
-        
-        // check for check
-        for (int i = 1; i <= 8; ++i) {
-            for (int j = 1; j <= 8; ++j) {
-                try {
-                    if (getPieceAt(i, j) != null && getPieceAt(i, j).getColor() != kingColor
-                        && isThisValidMoveForgetCheckAndTurn(Coordinates.of(i, j), kingPos)) {
-                        return true;
-                    }
-                } catch (PromotionException e) {
-                    return true;
-                } catch (SpecialMoveException e) {
-                    return false;
-                }
-            }
+    /**
+     * Schedules the wake-up at the flag fall of the side to move or, if there are listeners, at the next second its
+     * clock shows.
+     */
+    private void scheduleDeadline() {
+        long remaining = gameState.getPlayerTime(gameState.getWhoseMove()).toNanos();
+        remaining = Math.max(remaining - (System.nanoTime() - settledAt), 0);
+        long delay = listeners.isEmpty() || remaining == 0 ? remaining : (remaining - 1) % SECOND + 1;
+        long number = ++deadlineNumber;
+        deadline = clock.schedule(() -> deadlinePassed(number), delay);
+    }
+    
+    /**
+     * Run by the clock. A deadline that lost the race with a move or a pause is ignored, the next one is already
+     * scheduled.
+     */
+    private synchronized void deadlinePassed(long number) {
+        if (number != deadlineNumber || !clockRunning) {
+            return;
+        }
+        settle(System.nanoTime());
+        publishClocks();
+        if (clockRunning) {
+            scheduleDeadline();
         }
-        return false;
     }
     
-    private boolean authorizeCastling(Coordinates moveFrom, Coordinates moveTo) {
-        Colors color = getPieceAt(moveFrom).getColor();
-        assert getPieceAt(moveFrom).isKing();
-        Coordinates dir = Coordinates.getDir(moveFrom, moveTo);
-        Coordinates rookPos = Coordinates.of(dir.getCol() > 0 ? 8 : 1, moveFrom.getRow());
-        if (getPieceAt(rookPos) == null || getPieceAt(rookPos).isHasMoved()) {
-            return false;
+    /**
+     * @return outcome of the move on the current board, checks, pins, castling and en passant rights are not
+     * looked at yet
+     */
+    private MoveOutcome checkMoveForgetCheckAndTurn(Coordinates moveFrom, Coordinates moveTo) {
+        Piece piece = getPieceAt(moveFrom);
+        if (piece == null) {
+            return MoveOutcome.ILLEGAL;
+        }
+        if (getPieceAt(moveTo) != null && getPieceAt(moveTo).getColor() == piece.getColor()) {
+            return MoveOutcome.ILLEGAL;
         }
-        if (checkIfKingIsChecked(color)) {
-            return false;
+        MoveOutcome outcome = piece.checkMoveOnEmptyBoard(moveFrom, moveTo, getPieceAt(moveTo) != null);
+        if (outcome != MoveOutcome.NORMAL && outcome != MoveOutcome.PROMOTION_PENDING) {
+            return outcome;
         }
-        for (Coordinates c = moveFrom.plus(dir); c != rookPos; c = c.plus(dir)) {
+        for (Coordinates c : piece.getPath(moveFrom, moveTo)) {
             if (getPieceAt(c) != null) {
-                return false;
-            }
-            Piece king = getPieceAt(moveFrom);
-            try {
-                // perform a virtual move
-                setPieceAt(c, king);
-                setPieceAt(moveFrom, null);
-                if (checkIfKingIsChecked(color)) {
-                    return false;
-                }
-            } finally {
-                setPieceAt(c, null);
-                setPieceAt(moveFrom, king);
+                return MoveOutcome.ILLEGAL;
             }
         }
-        return true;
+        return outcome;
     }
     
-    private boolean authorizeEnPassant(Coordinates moveFrom, Coordinates moveTo) {
-        if (!Objects.equals(gameState.getLastMoveWasTwoFieldPawnAdvanceAtColumn(), moveTo.getCol())) {
-            return false;
-        }
-        
-        Piece movingPawn = getPieceAt(moveFrom);
-        Coordinates capturedPawnCoordinates = Coordinates.of(moveTo.getCol(), moveFrom.getRow());
-        Piece capturedPawn = getPieceAt(capturedPawnCoordinates);
-        
-        try {
-            // perform a virtual move
-            setPieceAt(moveTo, movingPawn);
-            setPieceAt(moveFrom, null);
-            setPieceAt(capturedPawnCoordinates, null);
-            if (checkIfKingIsChecked(gameState.getWhoseMove())) {
-                return false;
+    /**
+     * @return squares whose piece differs from the one the listeners were last told about, which are updated
+     */
+    private long changedSquares() {
+        long changed = 0;
+        for (int square = 0; square < 64; ++square) {
+            Piece piece = gameState.getPieceAt(Board.coordinates(square));
+            int code = piece == null ? Board.EMPTY : Board.piece(piece.getColor().ordinal(), piece.getKind().ordinal());
+            if (code != shownPieces[square]) {
+                shownPieces[square] = code;
+                changed |= 1L << square;
             }
-        } finally {
-            //undo virtual move
-            setPieceAt(moveTo, null);
-            setPieceAt(moveFrom, movingPawn);
-            setPieceAt(capturedPawnCoordinates, capturedPawn);
         }
-        return true;
+        return changed;
     }
     
-    private void setPieceAt(Coordinates coordinates, Piece piece) {
-        gameState.setPieceAt(coordinates, piece);
-    }
-    
-    private Piece getPieceAt(int i, int j) {
-        return getPieceAt(Coordinates.of(i, j));
+    private void publishPosition() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        long changed = changedSquares();
+        if (changed != 0) {
+            for (GameListener listener : listeners) {
+                listener.positionChanged(changed);
+            }
+        }
+        publishClocks();
     }
     
-    private class TimeCounter extends Thread {
-        
-        private TimeCounter() {
-            super();
-            if (timeCounter != null) {
-                throw new AssertionError("Tried to create a second instance of TimeCounter");
-            }
-            setDaemon(true);
+    private void publishClocks() {
+        if (listeners.isEmpty()) {
+            return;
         }
-        
-        @Override
-        @SuppressWarnings("InfiniteLoopStatement")
-        public void run() {
-            synchronized (this) {
-                while (true) {
-                    while (gameState.isPaused()) {
-                        try {
-                            this.wait();
-                        } catch (InterruptedException ignored) {
-                        }
-                    }
-                    gameState.decrementCurrentPlayerTime();
-                    try {
-                        this.wait(Time.precision.toMillis());
-                    } catch (InterruptedException ignored) {
-                    }
+        for (Colors color : Colors.values()) {
+            Time time = gameState.getPlayerTime(color);
+            long seconds = time.toSeconds();
+            if (seconds != shownSeconds[color.ordinal()]) {
+                shownSeconds[color.ordinal()] = seconds;
+                for (GameListener listener : listeners) {
+                    listener.clockChanged(color, time);
                 }
             }
         }
@@ -0,0 +1,137 @@
+package chess.model.perft;
+
+import chess.domain.Time;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.gameState.impl.BitboardGameState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts leaf nodes of the legal move tree to a given depth (perft). Subtrees of the root moves are counted in
+ * parallel on a fork-join pool, each on its own copy of the position that moves are made and unmade on in place,
+ * and an optional {@link PerftTable} shared by all workers skips subtrees that were already counted through a
+ * different move order. The counts can be compared against published perft results to validate the move rules, and
+ * the timing gives the move generation speed.
+ * <p>
+ * Usage: {@code Perft depth [threads] [hash table entries] [FEN]}, from the initial position unless a FEN is given; 0
+ * hash table entries count without a table.
+ */
+public class Perft {
+    
+    private final ForkJoinPool pool;
+    private final PerftTable table;
+    
+    /**
+     * @param table may be null, then no subtree counts are cached
+     */
+    public Perft(ForkJoinPool pool, PerftTable table) {
+        this.pool = pool;
+        this.table = table;
+    }
+    
+    public long count(GameState root, int depth) {
+        return divide(root, depth).getNodes();
+    }
+    
+    /**
+     * Counts the nodes below each legal move of the root position. The root state is not changed.
+     */
+    public PerftResult divide(GameState root, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be positive: " + depth);
+        }
+        long start = System.nanoTime();
+        
+        int[] buffer = new int[Move.MAX_MOVES];
+        int[] rootMoves = Arrays.copyOf(buffer, root.generateLegalMoves(buffer));
+        long[] rootNodes = new long[rootMoves.length];
+        
+        List<ForkJoinTask<Long>> subtrees = new ArrayList<>(rootMoves.length);
+        for (int move : rootMoves) {
+            GameState child = root.clone();
+            child.makeMove(move);
+            subtrees.add(pool.submit(new SubtreeCount(child, depth - 1)));
+        }
+        long nodes = 0;
+        for (int i = 0; i < rootMoves.length; ++i) {
+            rootNodes[i] = subtrees.get(i).join();
+            nodes += rootNodes[i];
+        }
+        
+        return new PerftResult(depth, nodes, System.nanoTime() - start, rootMoves, rootNodes);
+    }
+    
+    private long count(GameState state, int depth, int[][] moves) {
+        if (depth == 0) {
+            return 1;
+        }
+        long key = 0;
+        if (table != null && depth > 1) {
+            key = state.getZobristKey();
+            long nodes = table.get(key, depth);
+            if (nodes >= 0) {
+                return nodes;
+            }
+        }
+        
+        int n = state.generateLegalMoves(moves[depth]);
+        if (depth == 1) {
+            return n;
+        }
+        long nodes = 0;
+        for (int i = 0; i < n; ++i) {
+            int move = moves[depth][i];
+            long undo = state.makeMove(move);
+            nodes += count(state, depth - 1, moves);
+            state.unmakeMove(move, undo);
+        }
+        
+        if (table != null) {
+            table.put(key, depth, nodes);
+        }
+        return nodes;
+    }
+    
+    private final class SubtreeCount extends RecursiveTask<Long> {
+        
+        private static final long serialVersionUID = 2739478931210607849L;
+        
+        private final GameState state;
+        private final int depth;
+        
+        private SubtreeCount(GameState state, int depth) {
+            this.state = state;
+            this.depth = depth;
+        }
+        
+        @Override
+        protected Long compute() {
+            return count(state, depth, new int[depth + 1][Move.MAX_MOVES]);
+        }
+    }
+    
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: Perft depth [threads] [hash table entries] [FEN]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int tableSize = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        PerftTable table = tableSize > 0 ? new PerftTable(tableSize) : null;
+        GameState root = new BitboardGameState(Time.fromString("0"));
+        if (args.length > 3) {
+            // the FEN may be passed unquoted, as its six fields
+            root.setFen(String.join(" ", Arrays.asList(args).subList(3, args.length)));
+        }
+        
+        Perft perft = new Perft(new ForkJoinPool(threads), table);
+        System.out.println(perft.divide(root, depth));
+    }
+}
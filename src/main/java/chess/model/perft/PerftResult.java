@@ -0,0 +1,30 @@
+package chess.model.perft;
+
+import chess.model.bitboard.Move;
+import lombok.Value;
+
+@Value
+public class PerftResult {
+    
+    int depth;
+    long nodes;
+    long nanos;
+    // node counts below each legal move of the root position
+    int[] rootMoves;
+    long[] rootNodes;
+    
+    public long getNodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rootMoves.length; ++i) {
+            sb.append(Move.toString(rootMoves[i])).append(": ").append(rootNodes[i]).append('\n');
+        }
+        sb.append("depth ").append(depth).append(", nodes ").append(nodes)
+          .append(", time ").append(nanos / 1_000_000).append(" ms, ").append(getNodesPerSecond()).append(" nps");
+        return sb.toString();
+    }
+}
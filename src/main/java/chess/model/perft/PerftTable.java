@@ -0,0 +1,46 @@
+package chess.model.perft;
+
+/**
+ * Fixed-size table of subtree node counts, keyed by position key and depth. Entries are two longs: the data word
+ * (node count and depth) and the key XORed with the data word, so an entry torn by concurrent writers fails
+ * verification instead of returning a wrong count. Reads and writes take no locks; newer entries always replace
+ * older ones.
+ */
+public final class PerftTable {
+    
+    private static final int DEPTH_BITS = 8;
+    
+    private final long[] entries;
+    private final int mask;
+    
+    /**
+     * @param size number of entries, rounded down to a power of two
+     */
+    public PerftTable(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Table size must be positive: " + size);
+        }
+        int entryCount = Integer.highestOneBit(size);
+        entries = new long[2 * entryCount];
+        mask = entryCount - 1;
+    }
+    
+    /**
+     * @return node count stored for this position and depth, or -1 if there's none
+     */
+    public long get(long key, int depth) {
+        int index = 2 * ((int) key & mask);
+        long data = entries[index + 1];
+        if ((entries[index] ^ data) != key || (data & (1 << DEPTH_BITS) - 1) != depth) {
+            return -1;
+        }
+        return data >>> DEPTH_BITS;
+    }
+    
+    public void put(long key, int depth, long nodes) {
+        int index = 2 * ((int) key & mask);
+        long data = nodes << DEPTH_BITS | depth;
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+    }
+}
@@ -1,6 +1,7 @@
 package chess.model.pieces;
 
 import chess.domain.Coordinates;
+import chess.domain.MoveOutcome;
 import chess.domain.PieceKind;
 import lombok.EqualsAndHashCode;
 import chess.domain.Colors;
@@ -11,19 +12,21 @@ import java.util.List;
 @EqualsAndHashCode(callSuper = true)
 final class Knight extends Piece {
     
+    private static final long serialVersionUID = 5145208061279849847L;
+    
     Knight(Colors color) {
         super(color, PieceKind.KNIGHT);
     }
     
     @Override
-    public boolean checkIfCouldMoveThereOnEmptyBoard(Coordinates from, Coordinates to, boolean capturing) {
+    public MoveOutcome classifyMoveOnEmptyBoard(Coordinates from, Coordinates to, boolean capturing) {
         int x1 = from.getCol(), x2 = to.getCol(), y1 = from.getRow(), y2 = to.getRow();
         int d1 = Math.abs(x1 - x2), d2 = Math.abs(y1 - y2);
-        return (d1 == 1 && d2 == 2) || (d1 == 2 && d2 == 1);
+        return (d1 == 1 && d2 == 2) || (d1 == 2 && d2 == 1) ? MoveOutcome.NORMAL : MoveOutcome.ILLEGAL;
     }
     
     @Override
-    protected List<Coordinates> getPath(Coordinates from, Coordinates to) {
+    public List<Coordinates> getPath(Coordinates from, Coordinates to) {
         return new LinkedList<>();
     }
     
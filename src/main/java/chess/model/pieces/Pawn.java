@@ -1,63 +1,48 @@
 package chess.model.pieces;
 
 import chess.domain.Coordinates;
+import chess.domain.MoveOutcome;
 import chess.domain.PieceKind;
-import chess.domain.exceptions.EnPassantException;
-import chess.domain.exceptions.PromotionException;
-import chess.domain.exceptions.SpecialMoveException;
-import chess.domain.exceptions.TwoFieldsPawnAdvanceException;
 import lombok.EqualsAndHashCode;
 import chess.domain.Colors;
 
 @EqualsAndHashCode(callSuper = true)
 final class Pawn extends Piece {
     
+    private static final long serialVersionUID = -5692630798818780918L;
+    
     Pawn(Colors color) {
         super(color, PieceKind.PAWN);
     }
     
     @Override
-    @SuppressWarnings("SimplifiableIfStatement")
-    public boolean checkIfCouldMoveThereOnEmptyBoard(Coordinates from, Coordinates to, boolean capturing)
-    throws SpecialMoveException {
+    public MoveOutcome classifyMoveOnEmptyBoard(Coordinates from, Coordinates to, boolean capturing) {
         final int x1 = from.getCol(), x2 = to.getCol(), y1 = from.getRow(), y2 = to.getRow();
         final int direction = color == Colors.WHITE ? 1 : -1;
+        final boolean promoting = y2 == (color == Colors.WHITE ? 8 : 1);
+        final MoveOutcome advance = promoting ? MoveOutcome.PROMOTION_PENDING : MoveOutcome.NORMAL;
         if (x1 == x2) {
             if (capturing) {
-                return false;
+                return MoveOutcome.ILLEGAL;
             } else if (y2 - y1 == direction) {
-                return true;
+                return advance;
             } else if (y2 - y1 == 2 * direction) {
-                return !hasMoved;
+                return hasMoved ? MoveOutcome.ILLEGAL : MoveOutcome.NORMAL;
             } else {
-                return false;
+                return MoveOutcome.ILLEGAL;
             }
         } else if (Math.abs(x1 - x2) == 1) {
             if (y2 - y1 != direction) {
-                return false;
+                return MoveOutcome.ILLEGAL;
             } else if (capturing) {
-                return true;
+                return advance;
             } else if (y1 == (color == Colors.WHITE ? 5 : 4)) {
-                throw new EnPassantException();
+                return MoveOutcome.EN_PASSANT;
             } else {
-                return false;
+                return MoveOutcome.ILLEGAL;
             }
         } else {
-            return false;
-        }
-    }
-    
-    @Override
-    public void move(Coordinates to) throws PromotionException, TwoFieldsPawnAdvanceException {
-        try {
-            if (to.getRow() == (color == Colors.WHITE ? 8 : 1)) {
-                throw new PromotionException();
-            }
-            if (!hasMoved && to.getRow() == (color == Colors.WHITE ? 4 : 5)) {
-                throw new TwoFieldsPawnAdvanceException();
-            }
-        } finally {
-            super.move(to);
+            return MoveOutcome.ILLEGAL;
         }
     }
     
@@ -2,10 +2,11 @@ package chess.model.pieces;
 
 import chess.domain.Colors;
 import chess.domain.Coordinates;
+import chess.domain.MoveOutcome;
 import chess.domain.PieceKind;
-import chess.domain.exceptions.PromotionException;
+import chess.domain.exceptions.CastlingException;
+import chess.domain.exceptions.EnPassantException;
 import chess.domain.exceptions.SpecialMoveException;
-import chess.domain.exceptions.TwoFieldsPawnAdvanceException;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +19,8 @@ import java.util.List;
 @EqualsAndHashCode(exclude = "hasMoved")
 public abstract class Piece implements Serializable, Cloneable {
     
+    private static final long serialVersionUID = 4064453085296386778L;
+    
     @Getter
     protected final Colors color;
     @Getter
@@ -29,35 +32,51 @@ public abstract class Piece implements Serializable, Cloneable {
     /**
      * @param from Starting position of the piece
      * @param to   Goal of the piece
-     * @return Path on the board, if the piece could move there on an 'empty'
-     * board, i.e. it doesn't check for any other pieces that would
-     * stand in the way (but it does check if something is on the ''to''
-     * field), or if this move would expose king to check. If the piece
-     * can't move there, it returns null.
-     * @throws SpecialMoveException     if this move is possible as a special move, i.e. castling,
-     *                                  promotion or en passant
-     * @throws IllegalArgumentException if either of the fields is null or if from == to
+     * @return Outcome of the move on an 'empty' board, i.e. it doesn't check for any other pieces that would
+     * stand in the way (but it does check if something is on the ''to'' field), or if this move would expose
+     * king to check. Castling and en passant are only reported as possible, they still have to be authorized.
+     * @throws IllegalArgumentException if either of the fields is null
      */
-    public final List<Coordinates> getPath(Coordinates from, Coordinates to, boolean capturing)
-    throws SpecialMoveException {
+    public final MoveOutcome checkMoveOnEmptyBoard(Coordinates from, Coordinates to, boolean capturing) {
         if (from == null || to == null) {
             throw new IllegalArgumentException();
         }
         if (from == to) {
-            return null;
+            return MoveOutcome.ILLEGAL;
         }
-        if (checkIfCouldMoveThereOnEmptyBoard(from, to, capturing)) {
-            return getPath(from, to);
-        } else {
-            return null;
+        return classifyMoveOnEmptyBoard(from, to, capturing);
+    }
+    
+    /**
+     * Exception-based variant of {@link #checkMoveOnEmptyBoard(Coordinates, Coordinates, boolean)}.
+     *
+     * @return Path on the board, if the piece could move there on an 'empty' board, null otherwise
+     * @throws SpecialMoveException     if this move is possible as castling or en passant
+     * @throws IllegalArgumentException if either of the fields is null
+     */
+    public final List<Coordinates> getPath(Coordinates from, Coordinates to, boolean capturing)
+    throws SpecialMoveException {
+        switch (checkMoveOnEmptyBoard(from, to, capturing)) {
+            case NORMAL:
+            case PROMOTION_PENDING:
+                return getPath(from, to);
+            case CASTLING:
+                throw new CastlingException();
+            case EN_PASSANT:
+                throw new EnPassantException();
+            case ILLEGAL:
+                return null;
+            default:
+                throw new AssertionError();
         }
     }
     
-    protected abstract boolean checkIfCouldMoveThereOnEmptyBoard(Coordinates from, Coordinates to, boolean capturing)
-    throws SpecialMoveException;
+    protected abstract MoveOutcome classifyMoveOnEmptyBoard(Coordinates from, Coordinates to, boolean capturing);
     
-    @SuppressWarnings("WeakerAccess")
-    protected List<Coordinates> getPath(Coordinates from, Coordinates to) {
+    /**
+     * @return Fields between from and to (exclusive) that have to be empty for this piece to make the move
+     */
+    public List<Coordinates> getPath(Coordinates from, Coordinates to) {
         Coordinates dir = Coordinates.getDir(from, to);
         List<Coordinates> ret = new LinkedList<>();
         for (Coordinates c = from.plus(dir); c != to; c = c.plus(dir)) {
@@ -70,7 +89,7 @@ public abstract class Piece implements Serializable, Cloneable {
         return false;
     }
     
-    public void move(Coordinates to) throws PromotionException, TwoFieldsPawnAdvanceException {
+    public void move(Coordinates to) {
         hasMoved = true;
     }
     
@@ -102,4 +121,10 @@ public abstract class Piece implements Serializable, Cloneable {
         }
     }
     
+    public static Piece produce(Colors color, PieceKind type, boolean hasMoved) {
+        Piece piece = produce(color, type);
+        piece.hasMoved = hasMoved;
+        return piece;
+    }
+    
 }
@@ -1,6 +1,7 @@
 package chess.model.pieces;
 
 import chess.domain.Coordinates;
+import chess.domain.MoveOutcome;
 import chess.domain.PieceKind;
 import lombok.EqualsAndHashCode;
 import chess.domain.Colors;
@@ -8,14 +9,17 @@ import chess.domain.Colors;
 @EqualsAndHashCode(callSuper = true)
 final class Queen extends Piece {
     
+    private static final long serialVersionUID = -25148358821836412L;
+    
     Queen(Colors color) {
         super(color, PieceKind.QUEEN);
     }
     
     @Override
-    public boolean checkIfCouldMoveThereOnEmptyBoard(Coordinates from, Coordinates to, boolean capturing) {
+    public MoveOutcome classifyMoveOnEmptyBoard(Coordinates from, Coordinates to, boolean capturing) {
         int x1 = from.getCol(), x2 = to.getCol(), y1 = from.getRow(), y2 = to.getRow();
-        return Math.abs(x1 - x2) == Math.abs(y1 - y2) || x1 == x2 || y1 == y2;
+        boolean couldMove = Math.abs(x1 - x2) == Math.abs(y1 - y2) || x1 == x2 || y1 == y2;
+        return couldMove ? MoveOutcome.NORMAL : MoveOutcome.ILLEGAL;
         
     }
     
@@ -0,0 +1,20 @@
+package chess.model.search;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A search running in the background, see {@link SearchEngine}.
+ */
+public interface Search {
+    
+    /**
+     * Ends the search as soon as possible. The result is then that of the deepest finished iteration, which is never
+     * less than depth 1.
+     */
+    void stop();
+    
+    /**
+     * @return completed with the result when the search ends, on the search thread
+     */
+    CompletionStage<SearchResult> getResult();
+}
@@ -0,0 +1,27 @@
+package chess.model.search;
+
+import chess.domain.Time;
+import chess.model.gameState.GameState;
+
+import java.util.function.Consumer;
+
+/**
+ * Computer player: finds the best move of the side to move by searching the tree of moves in the background, so the
+ * caller, typically the GUI thread, isn't blocked. The position is copied, the caller's game state isn't touched.
+ */
+public interface SearchEngine {
+    
+    /**
+     * Searches deeper and deeper until the time budget runs out or the search is stopped.
+     */
+    default Search findBestMove(GameState position, Time timeBudget) {
+        return findBestMove(position, timeBudget, SearchResult.MAX_PLY, result -> {
+        });
+    }
+    
+    /**
+     * @param maxDepth depth the search ends at if the time budget lasts, up to {@link SearchResult#MAX_PLY}
+     * @param progress told the result of every finished iteration, on the search thread
+     */
+    Search findBestMove(GameState position, Time timeBudget, int maxDepth, Consumer<SearchResult> progress);
+}
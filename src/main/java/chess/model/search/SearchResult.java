@@ -0,0 +1,61 @@
+package chess.model.search;
+
+import chess.model.bitboard.Move;
+import lombok.Value;
+
+/**
+ * Outcome of a search to some depth: the best move, its score and the principal variation, the line both sides are
+ * expected to play.
+ */
+@Value
+public class SearchResult {
+    
+    // mates score MATE less the number of plies to the mate, from the side to move's point of view
+    public static final int MATE = 30_000;
+    public static final int MAX_PLY = 128;
+    
+    // Move.NONE if the side to move has no legal move
+    int move;
+    // in centipawns, from the side to move's point of view
+    int score;
+    int depth;
+    long nodes;
+    long nanos;
+    int[] principalVariation;
+    
+    public boolean isMate() {
+        return Math.abs(score) > MATE - MAX_PLY;
+    }
+    
+    /**
+     * @return moves to the mate, negative if the side to move gets mated
+     */
+    public int getMateInMoves() {
+        if (!isMate()) {
+            throw new IllegalStateException("Score " + score + " is not a mate");
+        }
+        int plies = MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+    }
+    
+    public long getNodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("depth ").append(depth).append(", score ");
+        if (isMate()) {
+            sb.append("mate ").append(getMateInMoves());
+        } else {
+            sb.append(score).append(" cp");
+        }
+        sb.append(", nodes ").append(nodes).append(", time ").append(nanos / 1_000_000).append(" ms, ")
+          .append(getNodesPerSecond()).append(" nps, pv");
+        for (int pvMove : principalVariation) {
+            sb.append(' ').append(Move.toString(pvMove));
+        }
+        return sb.toString();
+    }
+}
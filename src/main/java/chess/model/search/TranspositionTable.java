@@ -0,0 +1,156 @@
+package chess.model.search;
+
+import chess.model.bitboard.Move;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size table of search results keyed by position key, meant to be shared by all search threads.
+ * <p>
+ * Every slot is two longs: a data word packing the best move, score, depth, bound type and search generation, and
+ * the position key XORed with the data word. A lookup only accepts the slot if XORing both words gives back the key,
+ * so a slot torn by two threads writing at once reads as a miss instead of returning another position's score.
+ * Neither lookups nor stores take locks.
+ * <p>
+ * Data words can be decoded with {@link #move(long)}, {@link #score(long)}, {@link #depth(long)} and
+ * {@link #bound(long)}. Scores are stored as given, so mate scores have to be made relative to the stored position by
+ * the caller.
+ */
+public final class TranspositionTable {
+    
+    public static final long NO_ENTRY = 0;
+    
+    // the bound type is never zero, so neither is a stored data word
+    public static final int UPPER_BOUND = 1, LOWER_BOUND = 2, EXACT = 3;
+    
+    public static final int MIN_SCORE = Short.MIN_VALUE, MAX_SCORE = Short.MAX_VALUE;
+    
+    private static final int MOVE_BITS = 17, BOUND_SHIFT = 17, DEPTH_SHIFT = 19, SCORE_SHIFT = 27;
+    private static final int GENERATION_SHIFT = 43;
+    private static final long SLOT_BYTES = 2 * Long.BYTES;
+    
+    private final long[] slots;
+    private final int mask;
+    private volatile int generation;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder overwrites = new LongAdder();
+    
+    /**
+     * @param megabytes memory taken by the table, the number of slots is rounded down to a power of two
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be positive: " + megabytes);
+        }
+        long slotCount = Long.highestOneBit(Math.min(megabytes * (1L << 20) / SLOT_BYTES, 1 << 30));
+        slots = new long[(int) (2 * slotCount)];
+        mask = (int) slotCount - 1;
+    }
+    
+    /**
+     * @return data word stored for the position, or {@link #NO_ENTRY}
+     */
+    public long probe(long key) {
+        int index = 2 * ((int) key & mask);
+        long data = slots[index + 1];
+        if (data == NO_ENTRY || (slots[index] ^ data) != key) {
+            misses.increment();
+            return NO_ENTRY;
+        }
+        hits.increment();
+        return data;
+    }
+    
+    /**
+     * Stores a search result. Results of the current search replace those of earlier searches; within the same
+     * search, a result for another position only replaces one searched at least as deep.
+     *
+     * @param move  best move found, or {@link Move#NONE}
+     * @param score between {@link #MIN_SCORE} and {@link #MAX_SCORE}
+     * @param depth remaining depth the position was searched to, 0-255
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = 2 * ((int) key & mask);
+        long oldData = slots[index + 1];
+        if (oldData != NO_ENTRY) {
+            boolean samePosition = (slots[index] ^ oldData) == key;
+            if (!samePosition && generation(oldData) == generation && depth(oldData) > depth) {
+                return;
+            }
+            if (samePosition && move == Move.NONE) {
+                move = move(oldData); // keep the best move of an earlier search of the position
+            } else if (!samePosition) {
+                overwrites.increment();
+            }
+        }
+        long data = move & (1L << MOVE_BITS) - 1
+                    | (long) bound << BOUND_SHIFT
+                    | (long) (depth & 0xFF) << DEPTH_SHIFT
+                    | (long) (score & 0xFFFF) << SCORE_SHIFT
+                    | (long) (generation & 0xFF) << GENERATION_SHIFT;
+        slots[index] = key ^ data;
+        slots[index + 1] = data;
+    }
+    
+    /**
+     * Marks the entries stored so far as belonging to an earlier search, so new results can replace them.
+     */
+    public void newSearch() {
+        generation = generation + 1 & 0xFF;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < slots.length; ++i) {
+            slots[i] = 0;
+        }
+        resetStatistics();
+    }
+    
+    public static int move(long data) {
+        return (int) data & (1 << MOVE_BITS) - 1;
+    }
+    
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+    
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+    
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+    
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+    
+    public int getSize() {
+        return mask + 1;
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * @return number of stores that replaced an entry of a different position
+     */
+    public long getOverwrites() {
+        return overwrites.sum();
+    }
+    
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        overwrites.reset();
+    }
+}
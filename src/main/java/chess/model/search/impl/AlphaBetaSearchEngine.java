@@ -0,0 +1,238 @@
+package chess.model.search.impl;
+
+import chess.domain.Time;
+import chess.model.bitboard.Move;
+import chess.model.bitboard.PawnHashTable;
+import chess.model.gameState.GameState;
+import chess.model.gameState.impl.BitboardGameState;
+import chess.model.search.Search;
+import chess.model.search.SearchEngine;
+import chess.model.search.SearchResult;
+import chess.model.search.TranspositionTable;
+import chess.model.tablebase.TablebaseResult;
+import chess.model.tablebase.Tablebases;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Alpha-beta search (see {@link Searcher}) on a background thread. Searches requested while another one runs wait for
+ * it to end, and the time budget of each counts from the request. The transposition table is kept between searches,
+ * so the search of the next move starts from what the last one learned.
+ * <p>
+ * With more than one thread, the other threads help the main one through the shared transposition table (Lazy SMP).
+ * The result is always the main thread's, the helpers are stopped when it ends.
+ * <p>
+ * Each thread keeps its own {@link PawnHashTable} from search to search.
+ * <p>
+ * Positions the {@link Tablebases} have are not searched, the move and the distance to mate are taken from there.
+ * <p>
+ * Usage: {@code AlphaBetaSearchEngine time [threads] [fen]}, searches the position, the initial one by default, for
+ * the given time and prints every iteration.
+ */
+@Service
+public class AlphaBetaSearchEngine implements SearchEngine {
+    
+    private static final ThreadFactory daemonThreads = runnable -> {
+        Thread thread = new Thread(runnable, "search");
+        thread.setDaemon(true);
+        return thread;
+    };
+    private static final int PAWN_HASH_ENTRIES = 1 << 14;
+    
+    private final TranspositionTable transpositionTable;
+    private final Tablebases tablebases;
+    private final int threads;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(daemonThreads);
+    // null with a single thread
+    private final ExecutorService helpers;
+    // the main thread's first, then one for each helper
+    private final PawnHashTable[] pawnHashTables;
+    
+    /**
+     * @param threads number of threads searching each position
+     */
+    public AlphaBetaSearchEngine(TranspositionTable transpositionTable, int threads) {
+        this(transpositionTable, Tablebases.none(), threads);
+    }
+    
+    /**
+     * @param threads number of threads searching each position
+     */
+    @Autowired
+    public AlphaBetaSearchEngine(TranspositionTable transpositionTable, Tablebases tablebases,
+                                 @Value("${chess.search.threads:1}") int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.transpositionTable = transpositionTable;
+        this.tablebases = tablebases;
+        this.threads = threads;
+        helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, daemonThreads) : null;
+        pawnHashTables = new PawnHashTable[threads];
+        for (int i = 0; i < threads; ++i) {
+            pawnHashTables[i] = new PawnHashTable(PAWN_HASH_ENTRIES);
+        }
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    /**
+     * @return share of pawn structure lookups of all threads found in their pawn hash tables, only approximate while
+     * a search runs
+     */
+    public double getPawnHashHitRate() {
+        long hits = 0, lookups = 0;
+        for (PawnHashTable pawnHash : pawnHashTables) {
+            hits += pawnHash.getHits();
+            lookups += pawnHash.getHits() + pawnHash.getMisses();
+        }
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+    
+    @Override
+    public Search findBestMove(@NonNull GameState position, @NonNull Time timeBudget, int maxDepth,
+                               @NonNull Consumer<SearchResult> progress) {
+        if (maxDepth < 1 || maxDepth > SearchResult.MAX_PLY) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + SearchResult.MAX_PLY + ": " + maxDepth);
+        }
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        BackgroundSearch search = new BackgroundSearch(position.clone(), deadline, maxDepth, progress);
+        executor.execute(search);
+        return search;
+    }
+    
+    private final class BackgroundSearch implements Search, Runnable {
+        
+        private final GameState position;
+        private final long deadline;
+        private final int maxDepth;
+        private final Consumer<SearchResult> progress;
+        
+        private final AtomicBoolean stop = new AtomicBoolean();
+        private final CompletableFuture<SearchResult> result = new CompletableFuture<>();
+        
+        private BackgroundSearch(GameState position, long deadline, int maxDepth, Consumer<SearchResult> progress) {
+            this.position = position;
+            this.deadline = deadline;
+            this.maxDepth = maxDepth;
+            this.progress = progress;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                if (probeTablebases()) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            transpositionTable.newSearch();
+            LongAdder nodeCounter = new LongAdder();
+            AtomicBoolean stopHelpers = new AtomicBoolean();
+            List<Future<?>> helping = new ArrayList<>(threads - 1);
+            for (int i = 1; i < threads; ++i) {
+                final int helperNumber = i;
+                Searcher helper = new Searcher(position.clone(), transpositionTable, pawnHashTables[i], stopHelpers,
+                                               deadline, nodeCounter);
+                helping.add(helpers.submit(() -> helper.help(helperNumber)));
+            }
+            try {
+                Searcher searcher = new Searcher(position, transpositionTable, pawnHashTables[0], stop, deadline,
+                                                 nodeCounter);
+                SearchResult mainResult = searcher.iterate(maxDepth, progress);
+                stopHelpers.set(true);
+                for (Future<?> helper : helping) {
+                    helper.get();
+                }
+                result.complete(mainResult);
+            } catch (RuntimeException | ExecutionException e) {
+                result.completeExceptionally(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+            } finally {
+                stopHelpers.set(true);
+            }
+        }
+        
+        /**
+         * @return true if the result was found in the tablebases
+         */
+        private boolean probeTablebases() {
+            final long start = System.nanoTime();
+            TablebaseResult probe = tablebases.probe(position);
+            int move = probe == null ? Move.NONE : tablebases.bestMove(position);
+            if (move == Move.NONE) {
+                return false;
+            }
+            int score;
+            switch (probe.getOutcome()) {
+                case WIN:
+                    score = SearchResult.MATE - probe.getPliesToMate();
+                    break;
+                case LOSS:
+                    score = -SearchResult.MATE + probe.getPliesToMate();
+                    break;
+                default:
+                    score = 0;
+            }
+            SearchResult tableResult = new SearchResult(move, score, 1, 1, System.nanoTime() - start, new int[]{move});
+            progress.accept(tableResult);
+            result.complete(tableResult);
+            return true;
+        }
+        
+        @Override
+        public void stop() {
+            stop.set(true);
+        }
+        
+        @Override
+        public CompletionStage<SearchResult> getResult() {
+            return result;
+        }
+    }
+    
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: AlphaBetaSearchEngine time [threads] [fen]");
+            return;
+        }
+        Time timeBudget = Time.fromString(args[0]);
+        int threads = 1, fen = 1;
+        if (args.length > 1 && args[1].matches("\\d+")) {
+            threads = Integer.parseInt(args[1]);
+            fen = 2;
+        }
+        GameState position = new BitboardGameState(Time.fromString("0"));
+        if (args.length > fen) {
+            position.setFen(String.join(" ", Arrays.copyOfRange(args, fen, args.length)));
+        }
+        
+        AlphaBetaSearchEngine engine = new AlphaBetaSearchEngine(new TranspositionTable(64), threads);
+        Search search = engine.findBestMove(position, timeBudget, SearchResult.MAX_PLY, System.out::println);
+        SearchResult result = search.getResult().toCompletableFuture().join();
+        System.out.println("best move " + (result.getMove() == Move.NONE ? "none" : Move.toString(result.getMove())));
+        System.out.printf("pawn hash hit rate %.1f%%%n", 100 * engine.getPawnHashHitRate());
+    }
+}
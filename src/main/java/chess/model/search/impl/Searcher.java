@@ -0,0 +1,355 @@
+package chess.model.search.impl;
+
+import chess.domain.Colors;
+import chess.domain.PieceKind;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Move;
+import chess.model.bitboard.PawnHashTable;
+import chess.model.gameState.GameState;
+import chess.model.pieces.Piece;
+import chess.model.search.SearchResult;
+import chess.model.search.TranspositionTable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static chess.model.search.SearchResult.MATE;
+import static chess.model.search.SearchResult.MAX_PLY;
+
+/**
+ * Iterative deepening principal variation search of one position, made and unmade in place on a private copy.
+ * <p>
+ * The first move of a node is searched with the full window and the others with a null window, re-searched only if
+ * they turn out better. Moves are tried in order: the move of the transposition table, captures by most valuable
+ * victim and least valuable attacker, two killer moves per ply and the other quiet moves by their history of cutoffs.
+ * At the horizon, captures and promotions are searched until the position is quiet (quiescence search). Checks
+ * extend the search by a ply. Positions are scored by {@link GameState#evaluate()}.
+ * <p>
+ * Several searchers can search the same root on different threads, sharing the transposition table (Lazy SMP): one
+ * {@link #iterate(int, Consumer) iterates} and gives the result, the others only {@link #help(int) help} by filling
+ * the table with results the first one finds there when it gets to the same positions.
+ */
+final class Searcher {
+    
+    private static final int INFINITY = MATE + 1;
+    // indexed by PieceKind ordinal
+    private static final int[] PIECE_VALUES = {100, 500, 320, 330, 900, 0};
+    private static final int NODES_BETWEEN_CHECKS = 1 << 11;
+    private static final int TT_MOVE_ORDER = 1 << 30, CAPTURE_ORDER = 1 << 29, KILLER_ORDER = 1 << 28;
+    private static final int MAX_HISTORY = 1 << 20;
+    
+    private final GameState state;
+    private final TranspositionTable table;
+    private final PawnHashTable pawnHash;
+    private final AtomicBoolean stop;
+    private final long deadline;
+    // nodes of all searchers of the root, added in steps of NODES_BETWEEN_CHECKS
+    private final LongAdder nodeCounter;
+    
+    private long nodes;
+    // set once depth 1 is done, no search ends without a move
+    private boolean mayAbort;
+    private boolean aborted;
+    
+    private final int[][] moves = new int[MAX_PLY][Move.MAX_MOVES];
+    private final int[][] order = new int[MAX_PLY][Move.MAX_MOVES];
+    // principal variation found at each ply, from pv[ply][ply] to pv[ply][pvLength[ply] - 1]
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final int[][] killers = new int[MAX_PLY][2];
+    // indexed by the squares a quiet move goes from and to
+    private final int[] history = new int[64 * 64];
+    // keys of the positions on the path from the root, to find repetitions
+    private final long[] keys = new long[MAX_PLY + 1];
+    
+    /**
+     * @param state    position searched, it's changed during the search and left as it was
+     * @param pawnHash    used by this searcher only
+     * @param stop     the search ends once it's set
+     * @param deadline    {@link System#nanoTime()} the search ends at
+     * @param nodeCounter shared by all searchers of the root
+     */
+    Searcher(GameState state, TranspositionTable table, PawnHashTable pawnHash, AtomicBoolean stop, long deadline,
+             LongAdder nodeCounter) {
+        this.state = state;
+        this.table = table;
+        this.pawnHash = pawnHash;
+        this.stop = stop;
+        this.deadline = deadline;
+        this.nodeCounter = nodeCounter;
+    }
+    
+    /**
+     * Searches to depth 1, 2, ... until the maximum depth is reached, the time runs out or the search is stopped.
+     *
+     * @param progress told the result of every finished iteration
+     * @return result of the deepest finished iteration
+     */
+    SearchResult iterate(int maxDepth, Consumer<SearchResult> progress) {
+        final long start = System.nanoTime();
+        SearchResult result = null;
+        for (int depth = 1; depth <= maxDepth; ++depth) {
+            int score = search(depth, -INFINITY, INFINITY, 0);
+            if (aborted) {
+                break;
+            }
+            mayAbort = true;
+            long allNodes = nodeCounter.sum() + nodes % NODES_BETWEEN_CHECKS;
+            result = new SearchResult(pv[0][0], score, depth, allNodes, System.nanoTime() - start,
+                                      Arrays.copyOf(pv[0], pvLength[0]));
+            progress.accept(result);
+            if (pvLength[0] == 0 || result.isMate() && MATE - Math.abs(score) <= depth) {
+                break; // no legal move, or the shortest mate is found
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Searches deeper and deeper until stopped, without giving results. Odd-numbered helpers start one ply deeper
+     * than the others, so the threads spread over neighbouring depths instead of searching the same tree in step.
+     */
+    void help(int helperNumber) {
+        mayAbort = true;
+        for (int depth = 1 + helperNumber % 2; depth < MAX_PLY && !aborted; ++depth) {
+            search(depth, -INFINITY, INFINITY, 0);
+        }
+    }
+    
+    private int search(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        final long key = state.getZobristKey();
+        keys[ply] = key;
+        if (ply > 0 && isRepetition(ply)) {
+            return 0;
+        }
+        final boolean inCheck = isInCheck();
+        if (inCheck) {
+            ++depth;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiesce(alpha, beta, ply);
+        }
+        countNode();
+        if (aborted) {
+            return 0;
+        }
+        
+        int ttMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.NO_ENTRY) {
+            ttMove = TranspositionTable.move(entry);
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (ply > 0 && beta - alpha == 1 && TranspositionTable.depth(entry) >= depth
+                && (bound == TranspositionTable.EXACT
+                    || bound == TranspositionTable.LOWER_BOUND && score >= beta
+                    || bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                return score;
+            }
+        }
+        
+        final int count = state.generateLegalMoves(moves[ply]);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        orderMoves(ply, count, ttMove);
+        
+        final int originalAlpha = alpha;
+        int bestScore = -INFINITY, bestMove = Move.NONE;
+        for (int i = 0; i < count; ++i) {
+            int move = nextMove(ply, i, count);
+            long undo = state.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -search(depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                score = -search(depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta) {
+                    score = -search(depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            state.unmakeMove(move, undo);
+            if (aborted) {
+                return 0;
+            }
+            if (score <= bestScore) {
+                continue;
+            }
+            bestScore = score;
+            bestMove = move;
+            if (score > alpha) {
+                alpha = score;
+                pv[ply][ply] = move;
+                System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+                pvLength[ply] = pvLength[ply + 1];
+            }
+            if (score >= beta) {
+                if (victimValue(move) == 0 && Move.type(move) != Move.PROMOTION) {
+                    rememberCutoff(move, depth, ply);
+                }
+                break;
+            }
+        }
+        
+        int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                                      : bestScore > originalAlpha ? TranspositionTable.EXACT
+                                                                  : TranspositionTable.UPPER_BOUND;
+        table.store(key, bestMove, toTable(bestScore, ply), Math.min(depth, 255), bound);
+        return bestScore;
+    }
+    
+    /**
+     * Searches captures and promotions only, the side to move may also stand pat with the static evaluation.
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        countNode();
+        if (aborted) {
+            return 0;
+        }
+        int bestScore = state.evaluate(pawnHash);
+        if (bestScore >= beta || ply >= MAX_PLY - 1) {
+            return bestScore;
+        }
+        alpha = Math.max(alpha, bestScore);
+        
+        int count = state.generateLegalMoves(moves[ply]);
+        int captures = 0;
+        for (int i = 0; i < count; ++i) {
+            int move = moves[ply][i];
+            int victim = victimValue(move);
+            boolean queening = Move.type(move) == Move.PROMOTION
+                               && Move.promotionKind(move) == PieceKind.QUEEN.ordinal();
+            if (victim > 0 || queening) {
+                moves[ply][captures] = move;
+                order[ply][captures++] = CAPTURE_ORDER + 16 * victim - attackerOrder(move);
+            }
+        }
+        for (int i = 0; i < captures; ++i) {
+            int move = nextMove(ply, i, captures);
+            long undo = state.makeMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            state.unmakeMove(move, undo);
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score >= beta) {
+                    break;
+                }
+                alpha = Math.max(alpha, score);
+            }
+        }
+        return bestScore;
+    }
+    
+    private void orderMoves(int ply, int count, int ttMove) {
+        for (int i = 0; i < count; ++i) {
+            int move = moves[ply][i];
+            int victim = victimValue(move);
+            if (move == ttMove) {
+                order[ply][i] = TT_MOVE_ORDER;
+            } else if (victim > 0 || Move.type(move) == Move.PROMOTION) {
+                order[ply][i] = CAPTURE_ORDER + 16 * victim - attackerOrder(move)
+                                + (Move.type(move) == Move.PROMOTION ? PIECE_VALUES[Move.promotionKind(move)] : 0);
+            } else if (move == killers[ply][0]) {
+                order[ply][i] = KILLER_ORDER + 1;
+            } else if (move == killers[ply][1]) {
+                order[ply][i] = KILLER_ORDER;
+            } else {
+                order[ply][i] = history[Move.from(move) << 6 | Move.to(move)];
+            }
+        }
+    }
+    
+    /**
+     * Moves the best ordered of the remaining moves to the index, so moves are sorted only as far as they're tried.
+     */
+    private int nextMove(int ply, int index, int count) {
+        int[] plyMoves = moves[ply], plyOrder = order[ply];
+        int best = index;
+        for (int i = index + 1; i < count; ++i) {
+            if (plyOrder[i] > plyOrder[best]) {
+                best = i;
+            }
+        }
+        int move = plyMoves[best], moveOrder = plyOrder[best];
+        plyMoves[best] = plyMoves[index];
+        plyOrder[best] = plyOrder[index];
+        plyMoves[index] = move;
+        plyOrder[index] = moveOrder;
+        return move;
+    }
+    
+    private void rememberCutoff(int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int index = Move.from(move) << 6 | Move.to(move);
+        history[index] += depth * depth;
+        if (history[index] > MAX_HISTORY) {
+            for (int i = 0; i < history.length; ++i) {
+                history[i] /= 2;
+            }
+        }
+    }
+    
+    /**
+     * @return value of the captured piece, 0 if the move doesn't capture
+     */
+    private int victimValue(int move) {
+        if (Move.type(move) == Move.EN_PASSANT) {
+            return PIECE_VALUES[PieceKind.PAWN.ordinal()];
+        }
+        Piece victim = state.getPieceAt(Move.getTo(move));
+        return victim == null ? 0 : PIECE_VALUES[victim.getKind().ordinal()];
+    }
+    
+    private int attackerOrder(int move) {
+        return state.getPieceAt(Move.getFrom(move)).getKind().ordinal();
+    }
+    
+    private boolean isInCheck() {
+        Colors side = state.getWhoseMove();
+        return state.isSquareAttacked(state.findKing(side), side == Colors.WHITE ? Colors.BLACK : Colors.WHITE);
+    }
+    
+    /**
+     * @return true, if the position was already reached on the path from the root; it's scored as a draw, as
+     * repeating it once is as good as repeating it three times
+     */
+    private boolean isRepetition(int ply) {
+        for (int i = ply - 4; i >= 0; i -= 2) {
+            if (keys[i] == keys[ply]) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void countNode() {
+        if (++nodes % NODES_BETWEEN_CHECKS != 0) {
+            return;
+        }
+        nodeCounter.add(NODES_BETWEEN_CHECKS);
+        if (mayAbort && (stop.get() || System.nanoTime() - deadline >= 0)) {
+            aborted = true;
+        }
+    }
+    
+    /**
+     * Mate scores are stored relative to the stored position, so they stay right wherever it's found again.
+     */
+    private static int toTable(int score, int ply) {
+        return score > MATE - MAX_PLY ? score + ply : score < -MATE + MAX_PLY ? score - ply : score;
+    }
+    
+    private static int fromTable(int score, int ply) {
+        return score > MATE - MAX_PLY ? score - ply : score < -MATE + MAX_PLY ? score + ply : score;
+    }
+}
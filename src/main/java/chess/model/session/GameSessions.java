@@ -0,0 +1,141 @@
+package chess.model.session;
+
+import chess.config.Configuration;
+import chess.domain.Time;
+import chess.model.gameState.GameStateFactory;
+import chess.model.history.MoveHistoryFactory;
+import chess.model.logic.GameLogic;
+import chess.model.logic.impl.GameClock;
+import chess.model.logic.impl.GameLogicImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Games hosted in one JVM, created on demand and identified by a session number. The flag falls of all of them are
+ * watched by a single {@link GameClock}, so a session takes no thread of its own. Safe to use from many threads at
+ * once, a single game is not.
+ * <p>
+ * Usage: {@code GameSessions [sessions] [array|bitboard]}, opens 10000 sessions by default, prints the heap taken by
+ * each, the cost of scheduling their flag falls and the CPU time the clock takes while they all run.
+ */
+@Service
+public class GameSessions {
+    
+    private final Time defaultGameTime;
+    private final Time defaultTimeAddedPerMove;
+    private final GameStateFactory gameStateFactory;
+    private final MoveHistoryFactory moveHistoryFactory;
+    private final GameClock clock;
+    
+    private final ConcurrentHashMap<Long, GameLogic> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    
+    @Autowired
+    public GameSessions(Time defaultGameTime, Time defaultTimeAddedPerMove, GameStateFactory gameStateFactory,
+                        MoveHistoryFactory moveHistoryFactory, GameClock clock) {
+        this.defaultGameTime = defaultGameTime;
+        this.defaultTimeAddedPerMove = defaultTimeAddedPerMove;
+        this.gameStateFactory = gameStateFactory;
+        this.moveHistoryFactory = moveHistoryFactory;
+        this.clock = clock;
+    }
+    
+    /**
+     * Creates a game with the default clock settings, not started yet.
+     *
+     * @return number of the new session
+     */
+    public long open() {
+        long id = lastId.incrementAndGet();
+        sessions.put(id, new GameLogicImpl(defaultGameTime, defaultTimeAddedPerMove, gameStateFactory,
+                                           moveHistoryFactory, clock));
+        return id;
+    }
+    
+    /**
+     * @throws NoSuchElementException, if there is no such session
+     */
+    public GameLogic get(long id) {
+        GameLogic game = sessions.get(id);
+        if (game == null) {
+            throw new NoSuchElementException("No session " + id);
+        }
+        return game;
+    }
+    
+    /**
+     * Ends the game of the session and forgets it.
+     *
+     * @throws NoSuchElementException, if there is no such session
+     */
+    public void close(long id) {
+        GameLogic game = sessions.remove(id);
+        if (game == null) {
+            throw new NoSuchElementException("No session " + id);
+        }
+        game.endGame();
+    }
+    
+    public int size() {
+        return sessions.size();
+    }
+    
+    public GameClock getClock() {
+        return clock;
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        String implementation = args.length > 1 ? args[1] : "array";
+        Configuration configuration = new Configuration();
+        GameSessions sessions = new GameSessions(configuration.defaultGameTime(),
+                                                 configuration.defaultTimeAddedPerMove(),
+                                                 configuration.gameStateFactory(implementation),
+                                                 configuration.moveHistoryFactory(32), new GameClock());
+        
+        long heapBefore = usedHeap();
+        long[] ids = new long[count];
+        for (int i = 0; i < count; ++i) {
+            ids[i] = sessions.open();
+        }
+        long heapAfter = usedHeap();
+        System.out.printf("%d sessions, %d bytes each%n", count, (heapAfter - heapBefore) / count);
+        
+        // each start schedules the flag fall of the game, a move reschedules it the same way
+        long start = System.nanoTime();
+        for (long id : ids) {
+            sessions.get(id).startOrResume();
+        }
+        System.out.printf("%d ns to start or reschedule a clock%n", (System.nanoTime() - start) / count);
+        
+        GameClock clock = sessions.getClock();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long clockThread = Thread.getAllStackTraces().keySet().stream()
+                                 .filter(thread -> thread.getName().equals("game clock"))
+                                 .findFirst().orElseThrow(AssertionError::new).getId();
+        long cpuBefore = threads.getThreadCpuTime(clockThread);
+        Thread.sleep(10_000);
+        System.out.printf("%d running, clock thread used %d us of CPU in 10 s%n", clock.getRunningGames(),
+                          (threads.getThreadCpuTime(clockThread) - cpuBefore) / 1000);
+        
+        for (long id : ids) {
+            sessions.close(id);
+        }
+        System.out.println(clock.getRunningGames() + " running after closing");
+    }
+    
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,174 @@
+package chess.model.tablebase;
+
+import chess.model.bitboard.Board;
+
+import java.util.Arrays;
+
+import static chess.model.bitboard.Board.*;
+
+/**
+ * The pieces of an ending, named like {@code KQK} or {@code KRPKR}: the white pieces, then the black ones, each side
+ * starting with its king. Pieces are kept in a fixed order, white before black and by kind as in the name, and every
+ * piece is a slot of the tablebase index, see {@link Table}.
+ * <p>
+ * Of an ending and its color-flipped twin ({@code KQK} and {@code KKQ}) only the canonical one, where white has the
+ * stronger side, has a table; positions of the other are probed with colors and rows flipped.
+ */
+final class Material {
+    
+    private static final String LETTERS = "KQRBNP";
+    // kinds in the order of LETTERS
+    private static final int[] kinds = {KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN};
+    // indexed by Board kind: position in LETTERS, and value used to pick the stronger side
+    private static final int[] order = {5, 2, 4, 3, 1, 0};
+    private static final int[] values = {1, 5, 3, 3, 9, 0};
+    
+    // piece codes, see Board
+    private final int[] pieces;
+    
+    private Material(int[] pieces) {
+        this.pieces = pieces;
+        sort();
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the name is malformed
+     */
+    static Material parse(String name) {
+        int blackKing = name.indexOf('K', 1);
+        if (!name.startsWith("K") || blackKing < 0 || name.indexOf('K', blackKing + 1) >= 0) {
+            throw new IllegalArgumentException("Malformed ending: " + name);
+        }
+        int[] pieces = new int[name.length()];
+        for (int i = 0; i < name.length(); ++i) {
+            int letter = LETTERS.indexOf(name.charAt(i));
+            if (letter < 0) {
+                throw new IllegalArgumentException("Malformed ending: " + name);
+            }
+            pieces[i] = Board.piece(i < blackKing ? WHITE : BLACK, kinds[letter]);
+        }
+        return new Material(pieces);
+    }
+    
+    static Material of(Board board) {
+        int[] pieces = new int[Long.bitCount(board.getOccupied())];
+        int i = 0;
+        for (long s = board.getOccupied(); s != 0; s &= s - 1) {
+            pieces[i++] = board.pieceAt(Long.numberOfTrailingZeros(s));
+        }
+        return new Material(pieces);
+    }
+    
+    private void sort() {
+        // insertion sort by color, then by the order of LETTERS; there are only a few pieces
+        for (int i = 1; i < pieces.length; ++i) {
+            int piece = pieces[i], j = i;
+            while (j > 0 && rank(pieces[j - 1]) > rank(piece)) {
+                pieces[j] = pieces[j - 1];
+                --j;
+            }
+            pieces[j] = piece;
+        }
+    }
+    
+    private static int rank(int piece) {
+        return colorOf(piece) * LETTERS.length() + order[kindOf(piece)];
+    }
+    
+    int size() {
+        return pieces.length;
+    }
+    
+    /**
+     * @return piece code of the slot
+     */
+    int piece(int slot) {
+        return pieces[slot];
+    }
+    
+    /**
+     * @return the ending with colors swapped
+     */
+    Material mirrored() {
+        int[] mirrored = new int[pieces.length];
+        for (int i = 0; i < pieces.length; ++i) {
+            mirrored[i] = Board.piece(colorOf(pieces[i]) ^ 1, kindOf(pieces[i]));
+        }
+        return new Material(mirrored);
+    }
+    
+    /**
+     * @return true if white has more pieces, or as many worth more, or the same ones
+     */
+    boolean isCanonical() {
+        return compareSides() >= 0;
+    }
+    
+    Material canonical() {
+        return isCanonical() ? this : mirrored();
+    }
+    
+    private int compareSides() {
+        int[] count = new int[2], value = new int[2];
+        for (int piece : pieces) {
+            ++count[colorOf(piece)];
+            value[colorOf(piece)] += values[kindOf(piece)];
+        }
+        if (count[WHITE] != count[BLACK]) {
+            return Integer.compare(count[WHITE], count[BLACK]);
+        }
+        if (value[WHITE] != value[BLACK]) {
+            return Integer.compare(value[WHITE], value[BLACK]);
+        }
+        String name = toString();
+        int blackKing = name.indexOf('K', 1);
+        return -name.substring(0, blackKing).compareTo(name.substring(blackKing));
+    }
+    
+    /**
+     * @return the ending after the piece in the slot is captured
+     */
+    Material without(int slot) {
+        int[] rest = new int[pieces.length - 1];
+        System.arraycopy(pieces, 0, rest, 0, slot);
+        System.arraycopy(pieces, slot + 1, rest, slot, rest.length - slot);
+        return new Material(rest);
+    }
+    
+    /**
+     * @return the ending after the pawn in the slot is promoted to the given kind
+     */
+    Material promoted(int slot, int kind) {
+        int[] promoted = pieces.clone();
+        promoted[slot] = Board.piece(colorOf(pieces[slot]), kind);
+        return new Material(promoted);
+    }
+    
+    boolean hasPawns() {
+        for (int piece : pieces) {
+            if (kindOf(piece) == PAWN) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Material && Arrays.equals(pieces, ((Material) o).pieces);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(pieces);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(pieces.length);
+        for (int piece : pieces) {
+            sb.append(LETTERS.charAt(order[kindOf(piece)]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package chess.model.tablebase;
+
+import chess.model.bitboard.Board;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static chess.model.bitboard.Board.*;
+
+/**
+ * Distance to mate of every position of one ending, memory-mapped from the file {@link TablebaseGenerator} wrote.
+ * <p>
+ * A position is indexed by the side to move and the square of the piece in each slot of the {@link Material}:
+ * {@code side * 64^n + square0 + 64 * square1 + ...}; pieces of the same kind and color take their squares in
+ * increasing order, the codes of the other orders are left 0. Each index has a code of as few bits as the longest
+ * mate needs, packed one after another: 0 for a draw (or an impossible position), otherwise the number of plies to
+ * the mate plus 1, the side to move winning if that number is odd and losing if it's even.
+ * <p>
+ * The file starts with a header: the magic number {@code CHTB}, the format version (short), the bits per code
+ * (byte), the number of pieces (byte) and their codes (bytes). The packed codes follow, read as little-endian longs,
+ * and 8 padding bytes close the file.
+ */
+final class Table {
+    
+    static final int MAGIC = 0x43485442;
+    static final short VERSION = 1;
+    static final int DRAW = 0;
+    
+    private final Material material;
+    private final int bits;
+    private final MappedByteBuffer codes;
+    
+    private Table(Material material, int bits, MappedByteBuffer codes) {
+        this.material = material;
+        this.bits = bits;
+        this.codes = codes;
+    }
+    
+    static String fileName(Material material) {
+        return material + ".tbl";
+    }
+    
+    static long size(Material material) {
+        return 2L << 6 * material.size();
+    }
+    
+    /**
+     * Maps the table into memory. The file is not kept open.
+     *
+     * @throws IOException if the file is not a table of the ending or is damaged
+     */
+    static Table open(Path path, Material material) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final int headerBytes = headerBytes(material);
+            final long fileSize = channel.size();
+            if (fileSize < headerBytes) {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerBytes);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a tablebase: " + path);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported tablebase version " + version + ": " + path);
+            }
+            final int bits = header.get();
+            boolean sameMaterial = header.get() == material.size();
+            for (int i = 0; sameMaterial && i < material.size(); ++i) {
+                sameMaterial = header.get() == material.piece(i);
+            }
+            if (!sameMaterial || bits < 1 || bits > 8 || fileSize - headerBytes != dataBytes(material, bits)) {
+                throw new IOException("Damaged tablebase: " + path);
+            }
+            MappedByteBuffer codes = channel.map(FileChannel.MapMode.READ_ONLY, headerBytes, fileSize - headerBytes);
+            codes.order(ByteOrder.LITTLE_ENDIAN);
+            return new Table(material, bits, codes);
+        }
+    }
+    
+    static int headerBytes(Material material) {
+        return 4 + 2 + 1 + 1 + material.size();
+    }
+    
+    static long dataBytes(Material material, int bits) {
+        return (size(material) * bits + 7) / 8 + Long.BYTES;
+    }
+    
+    Material getMaterial() {
+        return material;
+    }
+    
+    int code(long index) {
+        long bit = index * bits;
+        return (int) (codes.getLong((int) (bit >>> 3)) >>> (bit & 7)) & (1 << bits) - 1;
+    }
+    
+    /**
+     * @param mirrored if the board holds the color-flipped ending, see {@link Material}
+     * @return index of the position on the board, which must hold the pieces of the ending
+     */
+    static long index(Material material, Board board, boolean mirrored) {
+        long index = 0, placed = 0, factor = 1;
+        for (int slot = 0; slot < material.size(); ++slot, factor <<= 6) {
+            int piece = material.piece(slot);
+            long pieces = board.getPieces(mirrored ? colorOf(piece) ^ 1 : colorOf(piece), kindOf(piece));
+            // reversing the bytes flips the rows; the lowest square of the slot's kind not taken by an earlier slot
+            int sq = Long.numberOfTrailingZeros((mirrored ? Long.reverseBytes(pieces) : pieces) & ~placed);
+            placed |= 1L << sq;
+            index += sq * factor;
+        }
+        int side = mirrored ? board.getSideToMove() ^ 1 : board.getSideToMove();
+        return side == WHITE ? index : index + factor;
+    }
+}
@@ -0,0 +1,471 @@
+package chess.model.tablebase;
+
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Move;
+import chess.model.bitboard.MoveGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static chess.model.bitboard.Board.*;
+
+/**
+ * Writes the {@link Tablebases} tables of endings by retrograde analysis. The table of an ending needs those of the
+ * endings a capture or a promotion leads to, they are written first unless the directory has them already.
+ * <p>
+ * Positions are resolved in passes, pass n finding those won or lost in n plies. The first pass looks at every
+ * position: mates are lost in 0 plies, and captures and promotions are looked up in the smaller tables. Later passes
+ * only look at the positions one move before those resolved by the pass before, found by taking moves back, and at
+ * those a capture or promotion decides only at that ply. A position is won if a move leads to a lost one, and lost if
+ * every move leads to a won one; what is never resolved is a draw. En passant captures are not considered.
+ * <p>
+ * Every pass is split among the threads by ranges of positions. A position is only written by the thread looking at
+ * it, and positions resolved during the pass count as unresolved until it ends, so the result doesn't depend on the
+ * order the threads work in.
+ * <p>
+ * Usage: {@code TablebaseGenerator directory [threads] ending...}, where an ending is named like {@code KBNK}, or is
+ * a number of pieces standing for all endings with up to that many. The number of threads is only taken as such if
+ * endings follow it.
+ */
+public final class TablebaseGenerator {
+    
+    private static final int UNKNOWN = 0xFF, MAX_PLY = 254;
+    private static final int WORDS_PER_CHUNK = 1 << 10;
+    
+    private final Path directory;
+    private final int threads;
+    private final Consumer<String> log;
+    
+    /**
+     * @param log told about every table written
+     */
+    public TablebaseGenerator(Path directory, int threads, Consumer<String> log) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.directory = directory;
+        this.threads = threads;
+        this.log = log;
+    }
+    
+    /**
+     * Writes the table of the ending, named like {@code KQK}, or of its color-flipped twin, and those it needs. Tables
+     * the directory has are kept.
+     *
+     * @throws IllegalArgumentException if the name is malformed or the ending has too many pieces
+     */
+    public void generate(String ending) throws IOException, InterruptedException {
+        Material material = Material.parse(ending);
+        if (material.size() > Tablebases.MAX_PIECES) {
+            throw new IllegalArgumentException("Endings of more than " + Tablebases.MAX_PIECES + " pieces aren't "
+                                               + "supported: " + ending);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            generate(material.canonical(), executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private void generate(Material material, ExecutorService executor) throws IOException, InterruptedException {
+        if (Files.exists(directory.resolve(Table.fileName(material)))) {
+            return;
+        }
+        for (int slot = 0; slot < material.size(); ++slot) {
+            int kind = kindOf(material.piece(slot));
+            if (kind != KING) {
+                generate(material.without(slot).canonical(), executor);
+            }
+            if (kind == PAWN) {
+                for (int promotion : new int[]{QUEEN, ROOK, BISHOP, KNIGHT}) {
+                    generate(material.promoted(slot, promotion).canonical(), executor);
+                }
+            }
+        }
+        long start = System.nanoTime();
+        Generation generation = new Generation(material, Tablebases.open(directory), executor);
+        int longest = generation.run();
+        generation.write();
+        log.accept(String.format("%s: %d positions, longest mate %d plies, %d ms", material, Table.size(material),
+                                 longest, (System.nanoTime() - start) / 1_000_000));
+    }
+    
+    /**
+     * Endings with up to the given number of pieces, one of each color-flipped pair.
+     */
+    static List<String> endings(int pieces) {
+        List<String> endings = new ArrayList<>();
+        String others = "QRBNP";
+        for (int white = 0; white <= pieces - 2; ++white) {
+            for (int black = 0; black <= pieces - 2 - white; ++black) {
+                addEndings(endings, others, white, black);
+            }
+        }
+        return endings;
+    }
+    
+    private static void addEndings(List<String> endings, String others, int white, int black) {
+        for (String whitePieces : combinations(others, white)) {
+            for (String blackPieces : combinations(others, black)) {
+                Material material = Material.parse("K" + whitePieces + "K" + blackPieces);
+                if (material.isCanonical() && !endings.contains(material.toString())) {
+                    endings.add(material.toString());
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return the multisets of the given size of the letters, each in the letters' order
+     */
+    private static List<String> combinations(String letters, int size) {
+        List<String> combinations = new ArrayList<>();
+        if (size == 0) {
+            combinations.add("");
+            return combinations;
+        }
+        for (int i = 0; i < letters.length(); ++i) {
+            for (String rest : combinations(letters.substring(i), size - 1)) {
+                combinations.add(letters.charAt(i) + rest);
+            }
+        }
+        return combinations;
+    }
+    
+    /**
+     * Tables of one ending being computed: plies to the mate of every position, and the positions to look at in
+     * the coming passes.
+     */
+    private final class Generation {
+        
+        private final Material material;
+        private final Tablebases smaller;
+        private final ExecutorService executor;
+        private final int size;
+        
+        // UNKNOWN or plies to the mate
+        private final byte[] plies;
+        // positions a capture or promotion may resolve at a later pass: the pass, and a bit for finding them fast
+        private final byte[] wakeAt;
+        private final AtomicLongArray waiting;
+        private final AtomicInteger lastWake = new AtomicInteger();
+        // positions one move before those resolved by the last pass and by the current one
+        private AtomicLongArray candidates, nextCandidates;
+        private final LongAdder resolved = new LongAdder();
+        
+        private int pass;
+        
+        private Generation(Material material, Tablebases smaller, ExecutorService executor) {
+            this.material = material;
+            this.smaller = smaller;
+            this.executor = executor;
+            size = (int) Table.size(material);
+            plies = new byte[size];
+            for (int i = 0; i < size; ++i) {
+                plies[i] = (byte) UNKNOWN;
+            }
+            wakeAt = new byte[size];
+            waiting = new AtomicLongArray(size / 64);
+            candidates = new AtomicLongArray(size / 64);
+            nextCandidates = new AtomicLongArray(size / 64);
+        }
+        
+        /**
+         * @return plies of the longest mate
+         */
+        private int run() throws InterruptedException {
+            for (pass = 0; ; ++pass) {
+                resolved.reset();
+                runPass();
+                if (resolved.sum() == 0 && pass >= lastWake.get()) {
+                    break;
+                }
+                AtomicLongArray swap = candidates;
+                candidates = nextCandidates;
+                nextCandidates = swap;
+                for (int i = 0; i < nextCandidates.length(); ++i) {
+                    nextCandidates.set(i, 0);
+                }
+            }
+            int longest = 0;
+            for (byte ply : plies) {
+                if ((ply & 0xFF) != UNKNOWN) {
+                    longest = Math.max(longest, ply & 0xFF);
+                }
+            }
+            return longest;
+        }
+        
+        private void runPass() throws InterruptedException {
+            final int words = size / 64, chunks = (words + WORDS_PER_CHUNK - 1) / WORDS_PER_CHUNK;
+            AtomicInteger nextChunk = new AtomicInteger();
+            List<Callable<Void>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; ++t) {
+                workers.add(() -> {
+                    Worker worker = new Worker();
+                    for (int chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk.getAndIncrement()) {
+                        int end = Math.min(words, (chunk + 1) * WORDS_PER_CHUNK);
+                        for (int word = chunk * WORDS_PER_CHUNK; word < end; ++word) {
+                            worker.lookAt(word);
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> done : executor.invokeAll(workers)) {
+                try {
+                    done.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Generating " + material + " failed", e.getCause());
+                }
+            }
+        }
+        
+        private void write() throws IOException {
+            int longest = 0;
+            for (byte ply : plies) {
+                if ((ply & 0xFF) != UNKNOWN) {
+                    longest = Math.max(longest, ply & 0xFF);
+                }
+            }
+            final int bits = 32 - Integer.numberOfLeadingZeros(longest + 1);
+            final int headerBytes = Table.headerBytes(material);
+            ByteBuffer buffer = ByteBuffer.allocate(headerBytes + (int) Table.dataBytes(material, bits));
+            buffer.putInt(Table.MAGIC).putShort(Table.VERSION).put((byte) bits).put((byte) material.size());
+            for (int slot = 0; slot < material.size(); ++slot) {
+                buffer.put((byte) material.piece(slot));
+            }
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            long word = 0;
+            int filled = 0;
+            for (int i = 0; i < size; ++i) {
+                int ply = plies[i] & 0xFF;
+                long code = ply == UNKNOWN ? Table.DRAW : ply + 1;
+                word |= code << filled;
+                filled += bits;
+                if (filled >= 64) {
+                    buffer.putLong(word);
+                    filled -= 64;
+                    word = filled == 0 ? 0 : code >>> bits - filled;
+                }
+            }
+            if (filled > 0) {
+                for (int b = 0; b < filled; b += 8) {
+                    buffer.put((byte) (word >>> b));
+                }
+            }
+            buffer.position(buffer.capacity()).flip();
+            Path path = directory.resolve(Table.fileName(material));
+            Path temporary = directory.resolve(Table.fileName(material) + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        
+        /**
+         * Board and buffers of one thread.
+         */
+        private final class Worker {
+            
+            private final Board board = new Board();
+            private final int[] moves = new int[Move.MAX_MOVES];
+            private final int[] squares = new int[Tablebases.MAX_PIECES];
+            
+            /**
+             * Resolves what it can of the 64 positions of the word.
+             */
+            private void lookAt(int word) {
+                long bits = pass == 0 ? -1L : candidates.get(word) | waiting.get(word);
+                for (; bits != 0; bits &= bits - 1) {
+                    int bit = Long.numberOfTrailingZeros(bits), index = word * 64 + bit;
+                    if ((plies[index] & 0xFF) != UNKNOWN) {
+                        continue;
+                    }
+                    if ((waiting.get(word) & 1L << bit) != 0 && (wakeAt[index] & 0xFF) == pass) {
+                        waiting.getAndUpdate(word, w -> w & ~(1L << bit));
+                    } else if (pass > 0 && (candidates.get(word) & 1L << bit) == 0) {
+                        continue;
+                    }
+                    if (setUp(index)) {
+                        evaluate(index);
+                    }
+                }
+            }
+            
+            /**
+             * @return false if the index is no possible position, or not the one of its position that's stored
+             */
+            private boolean setUp(int index) {
+                int rest = index;
+                long occupied = 0;
+                for (int slot = 0; slot < material.size(); ++slot, rest >>>= 6) {
+                    int sq = rest & 63, piece = material.piece(slot);
+                    if ((occupied & 1L << sq) != 0
+                        || kindOf(piece) == PAWN && (sq < 8 || sq >= 56)
+                        || slot > 0 && piece == material.piece(slot - 1) && sq < squares[slot - 1]) {
+                        return false;
+                    }
+                    occupied |= 1L << sq;
+                    squares[slot] = sq;
+                }
+                board.clear();
+                for (int slot = 0; slot < material.size(); ++slot) {
+                    board.put(squares[slot], material.piece(slot));
+                }
+                board.setSideToMove(rest);
+                return !board.isInCheck(rest ^ 1);
+            }
+            
+            private void evaluate(int index) {
+                final int side = board.getSideToMove();
+                int count = MoveGenerator.generateLegalMoves(board, moves);
+                if (count == 0) {
+                    if (board.isInCheck(side)) {
+                        resolve(index, 0);
+                    }
+                    return; // stalemate
+                }
+                int win = Integer.MAX_VALUE, loss = 0;
+                boolean allLost = true;
+                for (int i = 0; i < count; ++i) {
+                    int move = moves[i];
+                    boolean leavesTable = Move.type(move) == Move.PROMOTION || board.pieceAt(Move.to(move)) != EMPTY;
+                    long undo = board.makeMove(move);
+                    int ply;
+                    if (leavesTable) {
+                        int code = smaller.code(board);
+                        if (code < 0) {
+                            throw new IllegalStateException("Missing table for " + Material.of(board));
+                        }
+                        ply = code == Table.DRAW ? UNKNOWN : code - 1;
+                    } else {
+                        ply = plies[(int) Table.index(material, board, false)] & 0xFF;
+                        if (ply >= pass) {
+                            ply = UNKNOWN; // resolved by this pass, or not yet
+                        }
+                    }
+                    board.unmakeMove(move, undo);
+                    if (ply == UNKNOWN) {
+                        allLost = false;
+                    } else if (ply % 2 == 0) {
+                        win = Math.min(win, ply + 1);
+                    } else {
+                        loss = Math.max(loss, ply + 1);
+                    }
+                }
+                if (win != Integer.MAX_VALUE) {
+                    resolveAt(index, win);
+                } else if (allLost) {
+                    resolveAt(index, loss);
+                }
+            }
+            
+            private void resolveAt(int index, int ply) {
+                if (ply > MAX_PLY) {
+                    throw new IllegalStateException("Mate of more than " + MAX_PLY + " plies in " + material);
+                }
+                if (ply <= pass) {
+                    resolve(index, ply);
+                } else if (wakeAt[index] == 0 || ply < (wakeAt[index] & 0xFF)) {
+                    wakeAt[index] = (byte) ply;
+                    waiting.getAndUpdate(index / 64, w -> w | 1L << index);
+                    lastWake.accumulateAndGet(ply, Math::max);
+                }
+            }
+            
+            private void resolve(int index, int ply) {
+                plies[index] = (byte) ply;
+                resolved.increment();
+                markPredecessors(index);
+            }
+            
+            /**
+             * Marks the positions the opponent could have moved from to get to the one on the board, which is set up
+             * from the index.
+             */
+            private void markPredecessors(int index) {
+                final int mover = board.getSideToMove() ^ 1, sideFactor = size / 2;
+                final long occupied = board.getOccupied();
+                final int base = mover == WHITE ? index - sideFactor : index + sideFactor;
+                for (int slot = 0, factor = 1; slot < material.size(); ++slot, factor <<= 6) {
+                    int piece = material.piece(slot), sq = squares[slot];
+                    if (colorOf(piece) != mover) {
+                        continue;
+                    }
+                    long sources;
+                    if (kindOf(piece) == PAWN) {
+                        int back = mover == WHITE ? sq - 8 : sq + 8, row = sq >>> 3;
+                        sources = back >= 8 && back < 56 && (occupied & 1L << back) == 0 ? 1L << back : 0;
+                        if (sources != 0 && row == (mover == WHITE ? 3 : 4)) {
+                            int start = mover == WHITE ? sq - 16 : sq + 16;
+                            sources |= (occupied & 1L << start) == 0 ? 1L << start : 0;
+                        }
+                    } else {
+                        sources = board.getAttacks(sq) & ~occupied;
+                    }
+                    for (; sources != 0; sources &= sources - 1) {
+                        int source = Long.numberOfTrailingZeros(sources);
+                        int predecessor = base + (source - sq) * factor;
+                        // pieces of the same kind and color swap slots if they'd be out of order
+                        if (slot > 0 && material.piece(slot - 1) == piece && source < squares[slot - 1]) {
+                            int other = squares[slot - 1];
+                            predecessor = base + (source - other) * (factor >>> 6) + (other - sq) * factor;
+                        } else if (slot + 1 < material.size() && material.piece(slot + 1) == piece
+                                   && source > squares[slot + 1]) {
+                            int other = squares[slot + 1];
+                            predecessor = base + (other - sq) * factor + (source - other) * (factor << 6);
+                        }
+                        final int marked = predecessor;
+                        nextCandidates.getAndUpdate(marked / 64, w -> w | 1L << marked);
+                    }
+                }
+            }
+        }
+    }
+    
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator directory [threads] ending...");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors(), first = 1;
+        if (args.length > 2 && args[1].matches("\\d+")) {
+            threads = Integer.parseInt(args[1]);
+            first = 2;
+        }
+        Files.createDirectories(directory);
+        TablebaseGenerator generator = new TablebaseGenerator(directory, threads, System.out::println);
+        for (int i = first; i < args.length; ++i) {
+            List<String> endings = args[i].matches("\\d+") ? endings(Integer.parseInt(args[i]))
+                                                           : Collections.singletonList(args[i]);
+            for (String ending : endings) {
+                generator.generate(ending);
+            }
+        }
+    }
+}
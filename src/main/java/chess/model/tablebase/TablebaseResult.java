@@ -0,0 +1,20 @@
+package chess.model.tablebase;
+
+import lombok.Value;
+
+/**
+ * Outcome of a position with perfect play, from the side to move's point of view, as stored in a tablebase.
+ */
+@Value
+public class TablebaseResult {
+    
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+    
+    Outcome outcome;
+    // plies to the mate, 0 for a draw
+    int pliesToMate;
+}
@@ -0,0 +1,154 @@
+package chess.model.tablebase;
+
+import chess.model.bitboard.Attacks;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Fen;
+import chess.model.bitboard.Move;
+import chess.model.bitboard.MoveGenerator;
+import chess.model.gameState.GameState;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static chess.model.bitboard.Board.*;
+
+/**
+ * Endgame tablebases: the exact outcome and distance to mate of every position with up to {@link #MAX_PIECES}
+ * pieces, for the endings whose tables {@link TablebaseGenerator} wrote to a directory. Tables are mapped the first
+ * time a position of their ending is probed, so a probe costs a few array reads. Safe to use from many threads.
+ * <p>
+ * Tables don't know castling rights or en passant, positions where castling or an en passant capture is possible are
+ * not answered.
+ */
+public final class Tablebases {
+    
+    public static final int MAX_PIECES = 4;
+    
+    // null if there are no tables
+    private final Path directory;
+    private final ConcurrentMap<Material, Optional<Table>> tables = new ConcurrentHashMap<>();
+    
+    private Tablebases(Path directory) {
+        this.directory = directory;
+    }
+    
+    /**
+     * @param directory where the tables are, a table that isn't there is looked for again only by a new instance
+     */
+    public static Tablebases open(@NonNull Path directory) {
+        return new Tablebases(directory);
+    }
+    
+    /**
+     * @return tablebases without any table, which answer no probe
+     */
+    public static Tablebases none() {
+        return new Tablebases(null);
+    }
+    
+    /**
+     * @return the outcome of the position, or null if there's no table for it
+     * @throws UncheckedIOException if the table is damaged
+     */
+    public TablebaseResult probe(@NonNull GameState position) {
+        Board board = toBoard(position);
+        if (board == null) {
+            return null;
+        }
+        int code = code(board);
+        if (code < 0) {
+            return null;
+        }
+        if (code == Table.DRAW) {
+            return new TablebaseResult(TablebaseResult.Outcome.DRAW, 0);
+        }
+        int plies = code - 1;
+        return new TablebaseResult(plies % 2 == 1 ? TablebaseResult.Outcome.WIN : TablebaseResult.Outcome.LOSS, plies);
+    }
+    
+    /**
+     * Picks the move that keeps the best outcome: the fastest mate when winning, the slowest when losing.
+     *
+     * @return the move, or {@link Move#NONE} if there's no table for the position or it has no legal move
+     * @throws UncheckedIOException if a table is damaged
+     */
+    public int bestMove(@NonNull GameState position) {
+        Board board = toBoard(position);
+        if (board == null || code(board) < 0) {
+            return Move.NONE;
+        }
+        int[] moves = new int[Move.MAX_MOVES];
+        int count = MoveGenerator.generateLegalMoves(board, moves);
+        int bestMove = Move.NONE, bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < count; ++i) {
+            long undo = board.makeMove(moves[i]);
+            int code = code(board);
+            board.unmakeMove(moves[i], undo);
+            if (code < 0) {
+                continue; // no table for the ending after a capture or promotion
+            }
+            // the opponent's outcome turned into ours: winning soon is best, losing late is better than losing soon
+            int rank = code == Table.DRAW ? 0 : (code - 1) % 2 == 0 ? 1000 - code : code - 1000;
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = moves[i];
+            }
+        }
+        return bestMove;
+    }
+    
+    private Board toBoard(GameState position) {
+        if (directory == null) {
+            return null;
+        }
+        Board board = new Board();
+        Fen.parse(position.getFen(), board);
+        if (Long.bitCount(board.getOccupied()) > MAX_PIECES || board.getCastlingRights() != 0) {
+            return null;
+        }
+        int column = board.getEnPassantColumn(), side = board.getSideToMove();
+        if (column != NO_EN_PASSANT) {
+            int target = square(column + 1, side == WHITE ? 6 : 3);
+            if ((Attacks.pawn(side ^ 1, target) & board.getPieces(side, PAWN)) != 0) {
+                return null;
+            }
+        }
+        return board;
+    }
+    
+    /**
+     * @return code of the position as stored in its table, see {@link Table}, or -1 if there's no table for it;
+     * castling rights and the en passant column are ignored
+     * @throws UncheckedIOException if the table is damaged
+     */
+    int code(Board board) {
+        Material material = Material.of(board);
+        boolean mirrored = !material.isCanonical();
+        Table table = table(mirrored ? material.mirrored() : material);
+        return table == null ? -1 : table.code(Table.index(table.getMaterial(), board, mirrored));
+    }
+    
+    private Table table(Material material) {
+        Optional<Table> table = tables.get(material);
+        if (table == null) {
+            table = tables.computeIfAbsent(material, m -> {
+                Path path = directory.resolve(Table.fileName(m));
+                if (!Files.exists(path)) {
+                    return Optional.empty();
+                }
+                try {
+                    return Optional.of(Table.open(path, m));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return table.orElse(null);
+    }
+}
@@ -0,0 +1,31 @@
+package chess.model.validation;
+
+import lombok.Value;
+
+/**
+ * Outcome of validating one game.
+ */
+@Value
+public class GameReport {
+    
+    // position of the game in the input, from 0
+    long game;
+    // moves accepted before the first illegal one, or all moves of a valid game
+    int moves;
+    // result written in the input, null if the input doesn't store it
+    String declaredResult;
+    // 1-0 or 0-1 if the final position is mate, 1/2-1/2 if stalemate, * otherwise
+    String finalResult;
+    // why the game is invalid, null if it's valid
+    String error;
+    
+    public boolean isValid() {
+        return error == null;
+    }
+    
+    @Override
+    public String toString() {
+        return "game " + (game + 1) + ": " + (isValid() ? "valid" : error) + ", " + moves + " moves, result "
+               + (declaredResult != null ? declaredResult : finalResult);
+    }
+}
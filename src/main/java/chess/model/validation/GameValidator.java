@@ -0,0 +1,291 @@
+package chess.model.validation;
+
+import chess.domain.Colors;
+import chess.domain.Coordinates;
+import chess.domain.MoveOutcome;
+import chess.domain.PieceKind;
+import chess.domain.Time;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.gameState.GameStateFactory;
+import chess.model.gameState.impl.BitboardGameState;
+import chess.model.history.MoveHistory;
+import chess.model.history.MoveHistoryFactory;
+import chess.model.history.impl.UndoMoveHistory;
+import chess.model.history.io.GameArchive;
+import chess.model.history.io.PgnListener;
+import chess.model.history.io.PgnReader;
+import chess.model.logic.GameLogic;
+import chess.model.logic.impl.GameLogicImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Checks databases of games against the rules, without the GUI. Every move is replayed through
+ * {@link GameLogicImpl}, the rules the players' moves go through, and the declared result is compared with the final
+ * position: a game ending in mate or stalemate has to declare that result.
+ * <p>
+ * The input is read on the calling thread and cut into batches of games, which a fixed pool of workers validates, each
+ * with its own {@link GameLogicImpl}. The queue of batches is bounded, so files of any size are validated in constant
+ * memory, and when it's full the calling thread validates a batch itself. Reports are passed to the listener from the
+ * worker threads, in no particular order.
+ * <p>
+ * Usage: {@code GameValidator file [threads]}, the file being PGN or a {@link GameArchive}. Invalid games are printed.
+ */
+public class GameValidator {
+    
+    private static final int BATCH_GAMES = 64;
+    private static final Time NO_TIME = Time.fromString("0:00");
+    
+    private final int threads;
+    private final GameStateFactory gameStateFactory;
+    private final MoveHistoryFactory moveHistoryFactory;
+    
+    public GameValidator(int threads, GameStateFactory gameStateFactory, MoveHistoryFactory moveHistoryFactory) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        this.threads = threads;
+        this.gameStateFactory = gameStateFactory;
+        this.moveHistoryFactory = moveHistoryFactory;
+    }
+    
+    /**
+     * Validates the games of a PGN file encoded in UTF-8. Games that can't be parsed are reported as invalid.
+     */
+    public ValidationResult validatePgn(Path path, Consumer<GameReport> listener)
+    throws IOException, InterruptedException {
+        Run run = new Run(listener);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), 1 << 16)) {
+            StringBuilder batch = new StringBuilder();
+            long firstGame = 0;
+            int firstLine = 1, lineNumber = 0, games = 0;
+            boolean inMoveText = false;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                ++lineNumber;
+                if (line.startsWith("[") && inMoveText) {
+                    inMoveText = false;
+                    if (++games == BATCH_GAMES) {
+                        run.validatePgn(firstGame, firstLine, batch.toString());
+                        firstGame += games;
+                        firstLine = lineNumber;
+                        games = 0;
+                        batch.setLength(0);
+                    }
+                } else if (!line.startsWith("[") && !line.trim().isEmpty()) {
+                    inMoveText = true;
+                }
+                batch.append(line).append('\n');
+            }
+            if (batch.length() > 0) {
+                run.validatePgn(firstGame, firstLine, batch.toString());
+            }
+        } catch (IOException | RuntimeException e) {
+            run.executor.shutdownNow();
+            throw e;
+        }
+        return run.finish();
+    }
+    
+    /**
+     * Validates the games of a {@link GameArchive}. Archives don't store results, so only the final positions are
+     * reported.
+     */
+    public ValidationResult validateArchive(Path path, Consumer<GameReport> listener)
+    throws IOException, InterruptedException {
+        GameArchive archive = GameArchive.open(path, gameStateFactory, moveHistoryFactory);
+        Run run = new Run(listener);
+        for (int first = 0; first < archive.size(); first += BATCH_GAMES) {
+            run.validateArchive(archive, first, Math.min(first + BATCH_GAMES, archive.size()));
+        }
+        return run.finish();
+    }
+    
+    /**
+     * Validation of one input: the worker pool and the totals.
+     */
+    private final class Run {
+        
+        private final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(2 * threads), new ThreadPoolExecutor.CallerRunsPolicy());
+        private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+        private final Consumer<GameReport> listener;
+        
+        private final long start = System.nanoTime();
+        private final LongAdder games = new LongAdder();
+        private final LongAdder invalidGames = new LongAdder();
+        private final LongAdder moves = new LongAdder();
+        
+        private Run(Consumer<GameReport> listener) {
+            this.listener = listener;
+        }
+        
+        private void validatePgn(long firstGame, int firstLine, String batch) {
+            executor.execute(() -> workers.get().validatePgn(firstGame, firstLine, batch, this));
+        }
+        
+        private void validateArchive(GameArchive archive, int from, int to) {
+            executor.execute(() -> workers.get().validateArchive(archive, from, to, this));
+        }
+        
+        private void report(GameReport report) {
+            games.increment();
+            moves.add(report.getMoves());
+            if (!report.isValid()) {
+                invalidGames.increment();
+            }
+            listener.accept(report);
+        }
+        
+        private ValidationResult finish() throws InterruptedException {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            return new ValidationResult(games.sum(), invalidGames.sum(), moves.sum(), System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Replays games on the game logic of one worker thread.
+     */
+    private final class Worker implements PgnListener {
+        
+        private final GameLogic gameLogic = new GameLogicImpl(NO_TIME, NO_TIME, gameStateFactory, moveHistoryFactory);
+        private final int[] legalMoves = new int[Move.MAX_MOVES];
+        
+        private int moves;
+        private String declaredResult;
+        private String error;
+        
+        private void validatePgn(long firstGame, int firstLine, String batch, Run run) {
+            PgnReader reader = new PgnReader(new StringReader(batch), gameStateFactory, moveHistoryFactory, NO_TIME);
+            reader.setLineNumber(firstLine);
+            for (long game = firstGame; ; ++game) {
+                newGame();
+                try {
+                    if (!reader.readGame(this)) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    if (error == null) {
+                        error = e.getMessage();
+                    }
+                }
+                run.report(report(game));
+            }
+        }
+        
+        private void validateArchive(GameArchive archive, int from, int to, Run run) {
+            for (int game = from; game < to; ++game) {
+                newGame();
+                try {
+                    MoveHistory moveHistory = archive.load(game).getMoveHistory();
+                    for (int ply = 0; ply < moveHistory.size() && error == null; ++ply) {
+                        int move = moveHistory.getMove(ply);
+                        move(Move.getFrom(move), Move.getTo(move), Move.getPromotionChoice(move));
+                    }
+                } catch (IOException e) {
+                    error = e.getMessage();
+                }
+                run.report(report(game));
+            }
+        }
+        
+        private void newGame() {
+            gameLogic.endGame(); // drops a promotion left pending by an invalid game
+            gameLogic.newGame(NO_TIME, NO_TIME);
+            moves = 0;
+            declaredResult = null;
+            error = null;
+        }
+        
+        @Override
+        public void move(Coordinates moveFrom, Coordinates moveTo, PieceKind promotionChoice) {
+            if (error != null) {
+                return;
+            }
+            MoveOutcome outcome = gameLogic.attemptMove(moveFrom, moveTo);
+            if (outcome == MoveOutcome.PROMOTION_PENDING && promotionChoice != null) {
+                gameLogic.promote(promotionChoice);
+            } else if (outcome == MoveOutcome.ILLEGAL || outcome == MoveOutcome.PROMOTION_PENDING
+                       || promotionChoice != null) {
+                error = "move " + (moves + 1) + ", " + moveFrom + "-" + moveTo + ", rejected by the rules";
+                return;
+            }
+            ++moves;
+        }
+        
+        @Override
+        public void tag(String name, String value) {
+            if (!name.equals("FEN") || error != null) {
+                return;
+            }
+            GameState position = gameStateFactory.newGameState(NO_TIME);
+            try {
+                position.setFen(value);
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+                return;
+            }
+            gameLogic.loadGame(moveHistoryFactory.newMoveHistory(position));
+        }
+        
+        @Override
+        public void endGame(String result) {
+            declaredResult = result;
+        }
+        
+        private GameReport report(long game) {
+            String finalResult = finalResult();
+            if (error == null && declaredResult != null && !finalResult.equals("*")
+                && !finalResult.equals(declaredResult)) {
+                error = "declared result " + declaredResult + ", but the final position is " + finalResult;
+            }
+            return new GameReport(game, moves, declaredResult, finalResult, error);
+        }
+        
+        private String finalResult() {
+            if (gameLogic.generateLegalMoves(legalMoves) > 0) {
+                return "*";
+            }
+            GameState position = gameLogic.getMoveHistory().peek();
+            Colors loser = position.getWhoseMove();
+            Colors winner = loser == Colors.WHITE ? Colors.BLACK : Colors.WHITE;
+            if (!position.isSquareAttacked(position.findKing(loser), winner)) {
+                return "1/2-1/2";
+            }
+            return loser == Colors.WHITE ? "0-1" : "1-0";
+        }
+    }
+    
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: GameValidator file [threads]");
+            return;
+        }
+        Path path = Paths.get(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        
+        GameValidator validator = new GameValidator(threads, BitboardGameState::new, UndoMoveHistory::new);
+        Consumer<GameReport> printInvalid = report -> {
+            if (!report.isValid()) {
+                System.out.println(report);
+            }
+        };
+        ValidationResult result = GameArchive.isArchive(path) ? validator.validateArchive(path, printInvalid)
+                                                              : validator.validatePgn(path, printInvalid);
+        System.out.println(result);
+    }
+}
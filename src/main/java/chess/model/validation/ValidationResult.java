@@ -0,0 +1,22 @@
+package chess.model.validation;
+
+import lombok.Value;
+
+@Value
+public class ValidationResult {
+    
+    long games;
+    long invalidGames;
+    long moves;
+    long nanos;
+    
+    public long getGamesPerSecond() {
+        return nanos == 0 ? 0 : games * 1_000_000_000L / nanos;
+    }
+    
+    @Override
+    public String toString() {
+        return "games " + games + ", invalid " + invalidGames + ", moves " + moves + ", time " + nanos / 1_000_000
+               + " ms, " + getGamesPerSecond() + " games/s";
+    }
+}
@@ -27,26 +27,32 @@ public interface View {
     
     void addLegalStuffDisplayer(ActionListener actionListener);
     
+    /**
+     * May be called from any thread, like {@link #setTime(Colors, Time)}. Changes are shown together, at most once per
+     * frame.
+     *
+     * @param pieceKind null to show an empty field
+     */
     void setIconAt(Coordinates c, PieceKind pieceKind, Colors color);
     
     void addMoveHandler(BiConsumer<Coordinates, Coordinates> handler);
     
-    void move(Coordinates from, Coordinates to);
-    
     void clearGUI();
     
-    void castle(Coordinates moveFrom, Coordinates moveTo);
-    
-    void enPassant(Coordinates moveFrom, Coordinates moveTo);
-    
     PieceKind getPromotionChoice(Colors whoseMove);
     
-    void promote(Coordinates moveFrom, Coordinates moveTo, PieceKind promotionChoice, Colors color);
-    
     void setTime(Colors color, Time time);
     
     File getFileToReadFrom();
     
+    /**
+     * Asks which game of an archive to load.
+     *
+     * @param gameCount at least 1
+     * @return number of the game, from 0 to gameCount - 1, or null if cancelled
+     */
+    Integer getGameNumber(int gameCount);
+    
     File getFileToSaveIn();
     
     void addRevertMoveListener(ActionListener actionListener);
@@ -55,5 +61,11 @@ public interface View {
     
     void disableOrEnableButtonsCharacteristicForGameInProgressEqualTo(boolean gameInProgress);
     
+    /**
+     * Tells the players the game is over because the flag of one of them fell, and disables the buttons of a game in
+     * progress. May be called from any thread, returns without waiting for the message to be closed.
+     */
+    void showLostOnTime(Colors lostOnTime);
+    
     void removePromotionChoicePanelIfExists();
 }
@@ -59,11 +59,6 @@ class MainPanel extends JPanel {
         fields[c.getCol()][c.getRow()].setIcon(icon);
     }
     
-    void moveIcon(Coordinates moveFrom, Coordinates moveTo) {
-        fieldAt(moveTo).setIcon(fieldAt(moveFrom).getIcon());
-        fieldAt(moveFrom).setIcon(emptyIcon);
-    }
-    
     void clear() {
         for (int i = 1; i <= 8; ++i) {
             for (int j = 1; j <= 8; ++j) {
@@ -72,11 +67,6 @@ class MainPanel extends JPanel {
         }
     }
     
-    void promote(Coordinates moveFrom, Coordinates moveTo, Image pieceImage) {
-        fieldAt(moveFrom).setIcon(emptyIcon);
-        setIconAt(moveTo, pieceImage);
-    }
-    
     PieceKind getPromotionChoice(Colors color) {
         PromotionHandler ph = new PromotionHandler(color);
         extendedBoard.addToTopLayer(ph);
@@ -243,10 +233,6 @@ class MainPanel extends JPanel {
         return new ImageIcon(image.getScaledInstance(FIELD_SIZE, FIELD_SIZE, java.awt.Image.SCALE_SMOOTH));
     }
     
-    private Field fieldAt(Coordinates arg1) {
-        return fields[arg1.getCol()][arg1.getRow()];
-    }
-    
     @SuppressWarnings("FieldCanBeLocal")
     private final int NUMBER_OF_TILES_IN_CHESSBOARD_ROW = 10;
     private final int CHESSBOARD_SIZE = (int) (Toolkit.getDefaultToolkit().getScreenSize().getHeight() * 0.67);
@@ -16,11 +16,20 @@ import java.awt.event.ActionListener;
 import java.beans.PropertyChangeListener;
 import java.beans.VetoableChangeListener;
 import java.io.File;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
+/**
+ * Icons and clocks may be set from any thread. The changes are collected and applied by a single task on the event
+ * dispatch thread once per frame, the last change of each field or clock wins.
+ */
 @Service
 public class SwingView implements View {
     
+    private static final int FRAME_MILLIS = 16;
+    
     private JFrame mainFrame;
     private final MainPanel mainPanel;
     private final SettingsPanel settingsPanel;
@@ -30,11 +39,18 @@ public class SwingView implements View {
     
     private final ImageLoadingService imageService;
     
+    // changes waiting for the next frame, guarded by pendingChanges
+    private final Object pendingChanges = new Object();
+    private final Map<Coordinates, Image> pendingIcons = new HashMap<>();
+    private final Map<Colors, Time> pendingTimes = new EnumMap<>(Colors.class);
+    private final Timer frameTimer = new Timer(FRAME_MILLIS, e -> applyPendingChanges());
+    
     @Autowired
     public SwingView(MainPanel mainPanel, SettingsPanel settingsPanel, ImageLoadingService imageService) {
         this.settingsPanel = settingsPanel;
         this.imageService = imageService;
         this.mainPanel = mainPanel;
+        frameTimer.setRepeats(false);
         SwingUtilities.invokeLater(this::createAndShowGUI);
     }
     
@@ -107,7 +123,10 @@ public class SwingView implements View {
     @Override
     public void setIconAt(Coordinates c, PieceKind pieceKind, Colors color) {
         Image image = imageService.getPieceImageFromResources(pieceKind, color);
-        mainPanel.setIconAt(c, image);
+        synchronized (pendingChanges) {
+            scheduleFrame();
+            pendingIcons.put(c, image);
+        }
     }
     
     @Override
@@ -115,54 +134,52 @@ public class SwingView implements View {
         moveConsumer = biConsumer;
     }
     
-    @Override
-    public void move(Coordinates arg0, Coordinates arg1) {
-        mainPanel.moveIcon(arg0, arg1);
-    }
-    
     @Override
     public void clearGUI() {
         mainPanel.clear();
         displayMainView();
     }
     
-    @Override
-    public void castle(Coordinates from, Coordinates to) {
-        Coordinates dir = Coordinates.getDir(from, to);
-        Coordinates rookPos = Coordinates.of(dir.getCol() > 0 ? 8 : 1, from.getRow());
-        mainPanel.moveIcon(from, to);
-        mainPanel.moveIcon(rookPos, from.plus(dir));
-    }
-    
-    @Override
-    public void enPassant(Coordinates from, Coordinates to) {
-        mainPanel.moveIcon(from, to);
-        mainPanel.setIconAt(Coordinates.of(to.getCol(), from.getRow()), null);
-    }
-    
     @Override
     public PieceKind getPromotionChoice(Colors whoseMove) {
         return mainPanel.getPromotionChoice(whoseMove);
     }
     
     @Override
-    public void promote(Coordinates moveFrom, Coordinates moveTo, PieceKind promotionChoice, Colors color) {
-        Image image = imageService.getPieceImageFromResources(promotionChoice, color);
-        mainPanel.promote(moveFrom, moveTo, image);
+    public void setTime(Colors color, Time time) {
+        synchronized (pendingChanges) {
+            scheduleFrame();
+            pendingTimes.put(color, new Time(time));
+        }
     }
     
-    @Override
-    public void setTime(Colors color, Time time) {
-        if (mainPanel == null) {
-            return;
+    /**
+     * Starts the frame with the first change since the last one, has to be called holding the lock of the changes.
+     */
+    private void scheduleFrame() {
+        if (pendingIcons.isEmpty() && pendingTimes.isEmpty()) {
+            frameTimer.start();
         }
-        
-        if (color == Colors.WHITE) {
-            if (mainPanel.whiteTimeDisplayer != null) {
-                mainPanel.whiteTimeDisplayer.setText(time.toString());
+    }
+    
+    private void applyPendingChanges() {
+        Map<Coordinates, Image> icons;
+        Map<Colors, Time> times;
+        synchronized (pendingChanges) {
+            icons = new HashMap<>(pendingIcons);
+            times = new EnumMap<>(pendingTimes);
+            pendingIcons.clear();
+            pendingTimes.clear();
+        }
+        for (Map.Entry<Coordinates, Image> icon : icons.entrySet()) {
+            mainPanel.setIconAt(icon.getKey(), icon.getValue());
+        }
+        for (Map.Entry<Colors, Time> time : times.entrySet()) {
+            JLabel displayer = time.getKey() == Colors.WHITE ? mainPanel.whiteTimeDisplayer
+                                                             : mainPanel.blackTimeDisplayer;
+            if (displayer != null) {
+                displayer.setText(time.getValue().toString());
             }
-        } else if (mainPanel.blackTimeDisplayer != null) {
-            mainPanel.blackTimeDisplayer.setText(time.toString());
         }
     }
     
@@ -183,6 +200,24 @@ public class SwingView implements View {
         }
     }
     
+    @Override
+    public Integer getGameNumber(int gameCount) {
+        String message = "Number of the game to load (1-" + gameCount + "):";
+        while (true) {
+            String answer = JOptionPane.showInputDialog(mainFrame, message, "1");
+            if (answer == null) {
+                return null;
+            }
+            try {
+                int gameNumber = Integer.parseInt(answer.trim());
+                if (gameNumber >= 1 && gameNumber <= gameCount) {
+                    return gameNumber - 1;
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+    }
+    
     @Override
     public File getFileToSaveIn() {
         JFileChooser fc = new JFileChooser(System.getProperty("user.home")) {
@@ -230,6 +265,16 @@ public class SwingView implements View {
         mainPanel.disableOrEnableButtonsCharacteristicForGameInProgress(gameInProgress);
     }
     
+    @Override
+    public void showLostOnTime(Colors lostOnTime) {
+        String loser = lostOnTime == Colors.WHITE ? "White" : "Black";
+        SwingUtilities.invokeLater(() -> {
+            mainPanel.disableOrEnableButtonsCharacteristicForGameInProgress(false);
+            JOptionPane.showMessageDialog(mainFrame, loser + " lost on time", "Game over",
+                                          JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+    
     @Override
     public void removePromotionChoicePanelIfExists() {
         mainPanel.removePromotionChoicePanelIfExists();
@@ -0,0 +1,138 @@
+package chess.model.bitboard;
+
+import chess.domain.Time;
+import chess.model.gameState.GameState;
+import chess.model.gameState.GameStateFactory;
+import chess.model.gameState.impl.BitboardGameState;
+import chess.model.gameState.impl.GameStateImpl;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Sets up positions from FEN and writes them back, for both game state implementations.
+ */
+public class FenTest {
+    
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    
+    private static final List<GameStateFactory> factories = Arrays.asList(BitboardGameState::new, GameStateImpl::new);
+    
+    @Test
+    public void formatsWhatWasParsed() {
+        for (String fen : Arrays.asList(Fen.INITIAL, KIWIPETE,
+                                        "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+                                        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 1",
+                                        "r3k2r/8/8/8/8/8/8/R3K2R b Kq - 0 1",
+                                        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1")) {
+            for (GameStateFactory factory : factories) {
+                assertEquals(fen, position(factory, fen).getFen());
+            }
+        }
+    }
+    
+    @Test
+    public void moveCountersMayBeLeftOut() {
+        for (GameStateFactory factory : factories) {
+            assertEquals(Fen.INITIAL,
+                         position(factory, "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -").getFen());
+            assertEquals("8/8/8/4k3/8/8/8/4K3 w - - 0 1",
+                         position(factory, "8/8/8/4k3/8/8/8/4K3 w - - 12 40").getFen());
+        }
+    }
+    
+    @Test
+    public void formatsPositionsOfRandomGames() {
+        Random random = new Random(1);
+        int[] moves = new int[Move.MAX_MOVES];
+        for (GameStateFactory factory : factories) {
+            for (String start : Arrays.asList(Fen.INITIAL, KIWIPETE)) {
+                GameState game = position(factory, start);
+                for (int ply = 0; ply < 80; ++ply) {
+                    int count = game.generateLegalMoves(moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    game.makeMove(moves[random.nextInt(count)]);
+                    GameState copy = position(factory, game.getFen());
+                    assertEquals(game.getFen(), copy.getFen());
+                    assertEquals(game.getZobristKey(), copy.getZobristKey());
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void rejectsImpossiblePositions() {
+        for (String fen : Arrays.asList("8/8/8/4k3/8/8/8/8 w - - 0 1",
+                                        "8/8/8/4k3/8/8/8/3KK3 w - - 0 1",
+                                        "4k2P/8/8/8/8/8/8/4K3 w - - 0 1",
+                                        "4k3/8/8/8/8/8/8/4K2p b - - 0 1",
+                                        // black to move with the white king in check
+                                        "4k3/8/8/8/8/8/8/r3K3 b - - 0 1",
+                                        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBN w KQkq - 0 1",
+                                        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                                        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 more")) {
+            for (GameStateFactory factory : factories) {
+                GameState position = position(factory, KIWIPETE);
+                try {
+                    position.setFen(fen);
+                    fail("Accepted " + fen);
+                } catch (IllegalArgumentException e) {
+                    assertEquals(KIWIPETE, position.getFen());
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void dropsStaleCastlingRights() {
+        for (GameStateFactory factory : factories) {
+            // white king and black kingside rook not on their initial squares
+            GameState position = position(factory, "r3k3/8/8/8/8/8/8/R4K1R w KQkq - 0 1");
+            assertEquals("r3k3/8/8/8/8/8/8/R4K1R w q - 0 1", position.getFen());
+            assertEquals(position(factory, "r3k3/8/8/8/8/8/8/R4K1R w q - 0 1").getZobristKey(),
+                         position.getZobristKey());
+            // no rook to castle with on h1
+            position = position(factory, "r3k2r/8/8/8/8/8/8/R3K3 w KQkq - 0 1");
+            assertEquals("r3k2r/8/8/8/8/8/8/R3K3 w Qkq - 0 1", position.getFen());
+            assertFalse(hasMove(position, Move.of(Board.square(5, 1), Board.square(7, 1), Move.CASTLING)));
+        }
+    }
+    
+    @Test
+    public void dropsStaleEnPassantSquares() {
+        for (GameStateFactory factory : factories) {
+            // no pawn on e4 in the initial position
+            assertEquals(Fen.INITIAL.replace(" w ", " b "),
+                         position(factory, "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR b KQkq e3 0 1").getFen());
+            // the pawn on d5 can't have just passed d6, it is still behind it on d7
+            String fen = "4k3/3p4/8/3pP3/8/8/8/4K3 w - d6 0 1";
+            GameState position = position(factory, fen);
+            assertEquals("4k3/3p4/8/3pP3/8/8/8/4K3 w - - 0 1", position.getFen());
+            assertFalse(hasMove(position, Move.of(Board.square(5, 5), Board.square(4, 6), Move.EN_PASSANT)));
+        }
+    }
+    
+    private static boolean hasMove(GameState position, int move) {
+        int[] moves = new int[Move.MAX_MOVES];
+        for (int i = position.generateLegalMoves(moves) - 1; i >= 0; --i) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static GameState position(GameStateFactory factory, String fen) {
+        GameState position = factory.newGameState(Time.fromString("0"));
+        position.setFen(fen);
+        return position;
+    }
+}
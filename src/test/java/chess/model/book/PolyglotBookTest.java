@@ -0,0 +1,105 @@
+package chess.model.book;
+
+import chess.domain.Time;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Fen;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.gameState.impl.BitboardGameState;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads test-book.bin, written by {@link PolyglotBookWriter}: 1. e4 (weight 3), 1. d4 (1) and 1. Nf3 (0) from the
+ * initial position, 1... e5 (2) and 1... c5 (1) after 1. e4, and white castling kingside (1) with only kings and
+ * rooks on the board.
+ */
+public class PolyglotBookTest {
+    
+    private static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String AFTER_E4 = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1";
+    private static final String CASTLING = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+    
+    private PolyglotBook book;
+    
+    @Before
+    public void setUp() throws Exception {
+        book = PolyglotBook.open(Paths.get(getClass().getResource("test-book.bin").toURI()));
+    }
+    
+    @Test
+    public void keysMatchPolyglot() throws Exception {
+        PolyglotKeys keys = PolyglotKeys.load();
+        Board board = new Board();
+        Fen.parse(INITIAL, board);
+        assertEquals(0x463B96181691FC9CL, keys.key(board));
+        Fen.parse(AFTER_E4, board);
+        assertEquals(0x823C9B50FD114196L, keys.key(board));
+        Fen.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3", board);
+        assertEquals(0x22A48B5A8E47FF78L, keys.key(board));
+    }
+    
+    @Test
+    public void getMovesByWeight() {
+        assertEquals(6, book.size());
+        assertEquals(Arrays.asList(new BookMove(move("e2", "e4"), 3), new BookMove(move("d2", "d4"), 1),
+                                   new BookMove(move("g1", "f3"), 0)), book.getMoves(position(INITIAL)));
+        assertEquals(Arrays.asList(new BookMove(move("e7", "e5"), 2), new BookMove(move("c7", "c5"), 1)),
+                     book.getMoves(position(AFTER_E4)));
+    }
+    
+    @Test
+    public void getMovesDecodesCastling() {
+        List<BookMove> moves = book.getMoves(position(CASTLING));
+        assertEquals(1, moves.size());
+        assertEquals(Move.of(Board.square(5, 1), Board.square(7, 1), Move.CASTLING), moves.get(0).getMove());
+    }
+    
+    @Test
+    public void positionNotInBook() {
+        GameState position = position("rnbqkbnr/pppppppp/8/8/3P4/8/PPP1PPPP/RNBQKBNR b KQkq d3 0 1");
+        assertTrue(book.getMoves(position).isEmpty());
+        assertEquals(Move.NONE, book.pickMove(position, new Random(1)));
+    }
+    
+    @Test
+    public void pickMoveByWeight() {
+        GameState position = position(INITIAL);
+        Random random = new Random(1);
+        int e4 = 0, d4 = 0;
+        for (int i = 0; i < 4000; ++i) {
+            int move = book.pickMove(position, random);
+            if (move == move("e2", "e4")) {
+                ++e4;
+            } else {
+                assertEquals(move("d2", "d4"), move);
+                ++d4;
+            }
+        }
+        // 3 to 1, never the move of weight 0
+        assertTrue(e4 > 2800 && e4 < 3200);
+        assertEquals(4000, e4 + d4);
+    }
+    
+    private static GameState position(String fen) {
+        GameState position = new BitboardGameState(Time.fromString("0"));
+        position.setFen(fen);
+        return position;
+    }
+    
+    private static int move(String from, String to) {
+        return Move.of(square(from), square(to));
+    }
+    
+    private static int square(String name) {
+        return Board.square(name.charAt(0) - 'a' + 1, name.charAt(1) - '0');
+    }
+}
@@ -0,0 +1,130 @@
+package chess.model.history.io;
+
+import chess.domain.Colors;
+import chess.domain.Time;
+import chess.model.bitboard.Board;
+import chess.model.bitboard.Move;
+import chess.model.gameState.GameState;
+import chess.model.gameState.GameStateFactory;
+import chess.model.gameState.impl.BitboardGameState;
+import chess.model.gameState.impl.GameStateImpl;
+import chess.model.history.MoveHistory;
+import chess.model.history.MoveHistoryFactory;
+import chess.model.history.impl.MoveHistoryImpl;
+import chess.model.history.impl.UndoMoveHistory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Saves and loads games in the binary format, and loads baseline-game.sav, saved by a version that serialized the
+ * whole {@link MoveHistoryImpl}: 1. e4 e5 with five minutes on both clocks.
+ */
+public class BinaryGameFormatTest {
+    
+    private static final Time FIVE_MINUTES = Time.fromString("5:00");
+    // en passant, promotion and castling on both sides
+    private static final String MOVES = "e4 d5 e5 f5 exf6 e6 fxg7 Bd6 gxh8=Q Nc6 Nf3 Bd7 Bc4 Qe7 O-O O-O-O";
+    
+    @Test
+    public void readsSerializedGames() throws Exception {
+        SavedGame saved;
+        try (FileChannel channel = FileChannel.open(Paths.get(getClass().getResource("baseline-game.sav").toURI()))) {
+            saved = BinaryGameFormat.read(channel, BitboardGameState::new, UndoMoveHistory::new);
+        }
+        MoveHistory moveHistory = saved.getMoveHistory();
+        assertEquals(null, saved.getTimeAddedPerMove());
+        assertEquals(2, moveHistory.size());
+        assertEquals(Move.of(Board.square(5, 2), Board.square(5, 4)), moveHistory.getMove(0));
+        assertEquals(Move.of(Board.square(5, 7), Board.square(5, 5)), moveHistory.getMove(1));
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 1", moveHistory.peek().getFen());
+        for (Colors color : Colors.values()) {
+            assertEquals(FIVE_MINUTES.toNanos(), moveHistory.peek().getPlayerTime(color).toNanos());
+        }
+    }
+    
+    @Test
+    public void readsWhatWasWritten() throws IOException {
+        checkRoundTrip(BitboardGameState::new, UndoMoveHistory::new);
+        checkRoundTrip(GameStateImpl::new, MoveHistoryImpl::new);
+    }
+    
+    @Test
+    public void writesTheDocumentedLayout() throws IOException {
+        MoveHistory moveHistory = game(BitboardGameState::new, UndoMoveHistory::new);
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryGameFormat.encodedSize(moveHistory.size()));
+        BinaryGameFormat.encode(buffer, moveHistory, Time.fromString("0:03"));
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        assertEquals(moveHistory.size(), BinaryGameFormat.checkHeader(buffer));
+        assertEquals(0x43484553, buffer.getInt(0));
+        assertEquals(1, buffer.getShort(4));
+        assertEquals(FIVE_MINUTES.toNanos(), buffer.getLong(6));
+        assertEquals(TimeUnit.SECONDS.toNanos(3), buffer.getLong(22));
+    }
+    
+    private static void checkRoundTrip(GameStateFactory gameStateFactory, MoveHistoryFactory moveHistoryFactory)
+    throws IOException {
+        MoveHistory written = game(gameStateFactory, moveHistoryFactory);
+        Path file = Files.createTempFile("game", ".bin");
+        SavedGame saved;
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                BinaryGameFormat.write(channel, written, Time.fromString("0:03"));
+            }
+            try (FileChannel channel = FileChannel.open(file)) {
+                saved = BinaryGameFormat.read(channel, gameStateFactory, moveHistoryFactory);
+            }
+        } finally {
+            Files.delete(file);
+        }
+        
+        MoveHistory read = saved.getMoveHistory();
+        assertEquals(TimeUnit.SECONDS.toNanos(3), saved.getTimeAddedPerMove().toNanos());
+        assertEquals(written.size(), read.size());
+        for (Colors color : Colors.values()) {
+            assertEquals(FIVE_MINUTES.toNanos(), read.getPlayerTime(0, color).toNanos());
+            // the current clocks are kept to the nanosecond
+            assertEquals(written.peek().getPlayerTime(color).toNanos(), read.peek().getPlayerTime(color).toNanos());
+        }
+        for (int ply = 0; ply < written.size(); ++ply) {
+            assertEquals(written.getMove(ply), read.getMove(ply));
+            // the clock after each move is kept to the millisecond, the current ones after the last move
+            Colors mover = ply % 2 == 0 ? Colors.WHITE : Colors.BLACK;
+            long nanos = written.getPlayerTime(ply + 1, mover).toNanos();
+            assertEquals(ply + 1 < written.size() ? nanos - nanos % 1_000_000 : nanos,
+                         read.getPlayerTime(ply + 1, mover).toNanos());
+        }
+        assertEquals(written.peek().getFen(), read.peek().getFen());
+    }
+    
+    /**
+     * @return the game of {@link #MOVES}, with a clock that isn't a whole number of milliseconds after each move
+     */
+    private static MoveHistory game(GameStateFactory gameStateFactory, MoveHistoryFactory moveHistoryFactory) {
+        GameState gameState = gameStateFactory.newGameState(FIVE_MINUTES);
+        MoveHistory moveHistory = moveHistoryFactory.newMoveHistory(gameState);
+        Random random = new Random(1);
+        int[] legalMoves = new int[Move.MAX_MOVES];
+        for (String san : MOVES.split(" ")) {
+            int move = San.parse(gameState, san.toCharArray(), 0, san.length(), legalMoves);
+            Colors mover = gameState.getWhoseMove();
+            long undo = gameState.makeMove(move);
+            long nanos = gameState.getPlayerTime(mover).toNanos() - random.nextInt(2_000_000_000);
+            gameState.setPlayerTime(mover, Time.ofNanos(nanos));
+            moveHistory.push(gameState, move, undo);
+        }
+        return moveHistory;
+    }
+}
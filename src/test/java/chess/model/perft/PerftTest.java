@@ -0,0 +1,76 @@
+package chess.model.perft;
+
+import chess.domain.Time;
+import chess.model.gameState.GameState;
+import chess.model.gameState.GameStateFactory;
+import chess.model.gameState.impl.BitboardGameState;
+import chess.model.gameState.impl.GameStateImpl;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares node counts against the published perft results of positions chosen to exercise castling, en passant,
+ * promotions and discovered checks, for both game state implementations.
+ */
+public class PerftTest {
+    
+    private static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    // en passant captures that expose the king along the rank
+    private static final String EN_PASSANT = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String PROMOTIONS = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String PROMOTION_CHECKS = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    
+    private final Perft perft = new Perft(new ForkJoinPool(2), null);
+    private final Perft hashedPerft = new Perft(new ForkJoinPool(2), new PerftTable(1 << 16));
+    
+    @Test
+    public void initialPosition() {
+        check(INITIAL, 20, 400, 8902, 197281);
+    }
+    
+    @Test
+    public void kiwipete() {
+        check(KIWIPETE, 48, 2039, 97862);
+    }
+    
+    @Test
+    public void enPassant() {
+        check(EN_PASSANT, 14, 191, 2812, 43238);
+    }
+    
+    @Test
+    public void promotions() {
+        check(PROMOTIONS, 6, 264, 9467);
+    }
+    
+    @Test
+    public void promotionChecks() {
+        check(PROMOTION_CHECKS, 44, 1486, 62379);
+    }
+    
+    /**
+     * @param nodes expected count for depth 1, 2 and so on; the array implementation is only counted to depth 3
+     */
+    private void check(String fen, long... nodes) {
+        for (int depth = 1; depth <= nodes.length; ++depth) {
+            assertEquals(fen + " depth " + depth, nodes[depth - 1],
+                         perft.count(position(BitboardGameState::new, fen), depth));
+            assertEquals(fen + " depth " + depth + " hashed", nodes[depth - 1],
+                         hashedPerft.count(position(BitboardGameState::new, fen), depth));
+            if (depth <= 3) {
+                assertEquals(fen + " depth " + depth + " array", nodes[depth - 1],
+                             perft.count(position(GameStateImpl::new, fen), depth));
+            }
+        }
+    }
+    
+    private static GameState position(GameStateFactory factory, String fen) {
+        GameState position = factory.newGameState(Time.fromString("0"));
+        position.setFen(fen);
+        return position;
+    }
+}